@@ -0,0 +1,86 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Collection;
+
+/**
+ * The scheduler implementations that the benchmarks compare. Engines whose names start with
+ * {@code INDEXED_} build their index of the events once, before the measurement starts, the way the
+ * servlets do. The others build whatever they need from the events on every query.
+ */
+public enum BenchmarkEngine {
+  SORT_THEN_MERGE {
+    @Override
+    MeetingQueryEngine create(Collection<Event> events) {
+      return new FindMeetingQuery(MergeStrategy.SORT_THEN_MERGE);
+    }
+  },
+
+  K_WAY_MERGE {
+    @Override
+    MeetingQueryEngine create(Collection<Event> events) {
+      return new FindMeetingQuery(MergeStrategy.K_WAY_MERGE);
+    }
+  },
+
+  INDEXED_SORT_THEN_MERGE {
+    @Override
+    MeetingQueryEngine create(Collection<Event> events) {
+      return indexed(new FindMeetingQuery(MergeStrategy.SORT_THEN_MERGE), events);
+    }
+  },
+
+  INDEXED_K_WAY_MERGE {
+    @Override
+    MeetingQueryEngine create(Collection<Event> events) {
+      return indexed(new FindMeetingQuery(MergeStrategy.K_WAY_MERGE), events);
+    }
+  },
+
+  INDEXED_OFF_HEAP {
+    @Override
+    MeetingQueryEngine create(Collection<Event> events) {
+      OffHeapEventStore store = new OffHeapEventStore(events);
+      FindMeetingQuery query = new FindMeetingQuery();
+      return (ignored, request) -> query.query(store, request);
+    }
+  },
+
+  PACKED_INTERVALS {
+    @Override
+    MeetingQueryEngine create(Collection<Event> events) {
+      return new PackedIntervalQuery();
+    }
+  },
+
+  BITMAP {
+    @Override
+    MeetingQueryEngine create(Collection<Event> events) {
+      return new BitmapQuery();
+    }
+  };
+
+  /**
+   * Creates an engine that will be asked about {@code events}.
+   */
+  abstract MeetingQueryEngine create(Collection<Event> events);
+
+  private static MeetingQueryEngine indexed(FindMeetingQuery query, Collection<Event> events) {
+    EventIndex index = new EventIndex(events);
+    return (ignored, request) -> query.query(index, request);
+  }
+}
@@ -0,0 +1,148 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates random calendars and meeting requests for benchmarks. Some attendees are much busier
+ * than others: the attendee at popularity rank r is picked with weight 1 / r^s, where s is the Zipf
+ * exponent. An exponent of 0 picks every attendee equally often. The same seed always generates the
+ * same calendar.
+ */
+public final class CalendarGenerator {
+  // Events start and end on these boundaries, like the ones people book by hand.
+  private static final int GRANULARITY = 5;
+
+  private final List<String> attendees;
+  private final double[] cumulativeWeights;
+  private final Random random;
+
+  /**
+   * Creates a generator for {@code attendeeCount} attendees named "Attendee 0", "Attendee 1", ...,
+   * in order of popularity.
+   */
+  public CalendarGenerator(int attendeeCount, double zipfExponent, long seed) {
+    this(attendeeNames(attendeeCount), zipfExponent, seed);
+  }
+
+  /**
+   * Creates a generator for the given attendees, listed from most to least popular.
+   */
+  public CalendarGenerator(List<String> attendees, double zipfExponent, long seed) {
+    if (attendees.isEmpty()) {
+      throw new IllegalArgumentException("attendees cannot be empty");
+    }
+    if (zipfExponent < 0) {
+      throw new IllegalArgumentException("zipfExponent cannot be negative");
+    }
+
+    this.attendees = new ArrayList<>(attendees);
+    this.cumulativeWeights = new double[attendees.size()];
+    this.random = new Random(seed);
+
+    double total = 0;
+    for (int rank = 0; rank < cumulativeWeights.length; rank++) {
+      total += 1 / Math.pow(rank + 1, zipfExponent);
+      cumulativeWeights[rank] = total;
+    }
+  }
+
+  /**
+   * Generates {@code count} events within a single day.
+   *
+   * @param count The number of events.
+   * @param maxAttendeesPerEvent Each event has between 1 and this many distinct attendees.
+   * @param minDuration The shortest event, in minutes.
+   * @param maxDuration The longest event, in minutes. Events that would run past the end of the day
+   *     are cut short.
+   */
+  public List<Event> events(int count, int maxAttendeesPerEvent, int minDuration, int maxDuration) {
+    List<Event> events = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int duration = minDuration + random.nextInt(maxDuration - minDuration + 1);
+      int start = random.nextInt(TimeRange.END_OF_DAY / GRANULARITY) * GRANULARITY;
+      int end = Math.min(start + duration, TimeRange.END_OF_DAY + 1);
+      Set<String> eventAttendees = pickAttendees(1 + random.nextInt(maxAttendeesPerEvent));
+      events.add(new Event("Event " + i, TimeRange.fromStartEnd(start, end, false), eventAttendees));
+    }
+    return events;
+  }
+
+  /**
+   * Generates a meeting request whose attendees are picked by popularity, so busy attendees are
+   * asked to meetings more often.
+   *
+   * @param mandatoryCount The number of distinct mandatory attendees.
+   * @param optionalCount The number of distinct optional attendees, none of whom are mandatory.
+   * @param duration The duration of the meeting, in minutes.
+   */
+  public MeetingRequest request(int mandatoryCount, int optionalCount, long duration) {
+    Set<String> requestAttendees = pickAttendees(mandatoryCount + optionalCount);
+    List<String> picked = new ArrayList<>(requestAttendees);
+    MeetingRequest request = new MeetingRequest(picked.subList(0, mandatoryCount), duration);
+    for (String attendee : picked.subList(mandatoryCount, picked.size())) {
+      request.addOptionalAttendee(attendee);
+    }
+    return request;
+  }
+
+  /**
+   * Picks {@code count} distinct attendees, or every attendee if there are fewer than that.
+   */
+  private Set<String> pickAttendees(int count) {
+    Set<String> picked = new LinkedHashSet<>();
+    int target = Math.min(count, attendees.size());
+    while (picked.size() < target) {
+      picked.add(attendees.get(pickRank()));
+    }
+    return picked;
+  }
+
+  private int pickRank() {
+    double target = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+    int index = Arrays.binarySearch(cumulativeWeights, target);
+    return index >= 0 ? index : Math.min(-index - 1, cumulativeWeights.length - 1);
+  }
+
+  /**
+   * Returns the names "Attendee 0" to "Attendee {@code count - 1}".
+   */
+  public static List<String> attendeeNames(int count) {
+    List<String> names = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      names.add("Attendee " + i);
+    }
+    return names;
+  }
+
+  /**
+   * Returns the distinct attendees of {@code events}, in the order they first appear.
+   */
+  public static List<String> attendeesOf(Collection<Event> events) {
+    Set<String> attendees = new LinkedHashSet<>();
+    for (Event event : events) {
+      attendees.addAll(event.getAttendees());
+    }
+    return new ArrayList<>(attendees);
+  }
+}
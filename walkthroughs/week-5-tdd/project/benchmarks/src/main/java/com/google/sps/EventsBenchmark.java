@@ -0,0 +1,83 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures queries against the fixed calendar in {@code Events.events}, the one the web page shows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventsBenchmark {
+  private static final int REQUEST_COUNT = 64;
+
+  @Param
+  public BenchmarkEngine engine;
+
+  @Param({"30", "60", "120"})
+  public long duration;
+
+  @Param({"2"})
+  public int mandatoryAttendees;
+
+  @Param({"0", "2"})
+  public int optionalAttendees;
+
+  private Collection<Event> events;
+  private MeetingQueryEngine query;
+  private MeetingRequest[] requests;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    events = Arrays.asList(Events.events);
+    query = engine.create(events);
+
+    List<String> attendees = CalendarGenerator.attendeesOf(events);
+    CalendarGenerator generator = new CalendarGenerator(attendees, 0, 42);
+    requests = new MeetingRequest[REQUEST_COUNT];
+    for (int i = 0; i < REQUEST_COUNT; i++) {
+      requests[i] = generator.request(mandatoryAttendees, optionalAttendees, duration);
+    }
+  }
+
+  @Benchmark
+  public Collection<TimeRange> query() {
+    // Cycle through different requests so the JIT cannot specialize on one of them.
+    MeetingRequest request = requests[next];
+    next = (next + 1) % REQUEST_COUNT;
+    return query.query(events, request);
+  }
+}
@@ -0,0 +1,102 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures queries against calendars from {@code CalendarGenerator}. Use {@code -p} to pick other
+ * sizes than the defaults, for example {@code -p eventCount=100000 -p zipfExponent=1.5}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SyntheticCalendarBenchmark {
+  private static final int REQUEST_COUNT = 64;
+
+  @Param
+  public BenchmarkEngine engine;
+
+  @Param({"100", "10000"})
+  public int eventCount;
+
+  @Param({"1000"})
+  public int attendeeCount;
+
+  @Param({"0", "1.2"})
+  public double zipfExponent;
+
+  @Param({"4"})
+  public int maxAttendeesPerEvent;
+
+  @Param({"15"})
+  public int minEventDuration;
+
+  @Param({"120"})
+  public int maxEventDuration;
+
+  @Param({"30"})
+  public long duration;
+
+  @Param({"5"})
+  public int mandatoryAttendees;
+
+  @Param({"2"})
+  public int optionalAttendees;
+
+  @Param({"42"})
+  public long seed;
+
+  private Collection<Event> events;
+  private MeetingQueryEngine query;
+  private MeetingRequest[] requests;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    CalendarGenerator generator = new CalendarGenerator(attendeeCount, zipfExponent, seed);
+    events = generator.events(eventCount, maxAttendeesPerEvent, minEventDuration, maxEventDuration);
+    query = engine.create(events);
+
+    requests = new MeetingRequest[REQUEST_COUNT];
+    for (int i = 0; i < REQUEST_COUNT; i++) {
+      requests[i] = generator.request(mandatoryAttendees, optionalAttendees, duration);
+    }
+  }
+
+  @Benchmark
+  public Collection<TimeRange> query() {
+    // Cycle through different requests so the JIT cannot specialize on one of them.
+    MeetingRequest request = requests[next];
+    next = (next + 1) % REQUEST_COUNT;
+    return query.query(events, request);
+  }
+}
@@ -0,0 +1,163 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns attendee names to dense int ids, so that attendee sets can be stored as sorted
+ * {@code int[]} arrays and compared with integer operations instead of string hashing. Ids start at
+ * zero and are never reused, and names are never removed. Dictionaries are thread-safe.
+ */
+public final class AttendeeDictionary {
+  private static final AttendeeDictionary DEFAULT = new AttendeeDictionary();
+
+  private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+  // Names by id. Reassigned after every new name, even when the array did not grow, so that a
+  // thread which reads this field also sees the names written before it.
+  private volatile String[] names = new String[16];
+  private int size;
+
+  /**
+   * Creates an empty dictionary.
+   */
+  public AttendeeDictionary() {}
+
+  /**
+   * Returns the dictionary shared by every {@code Event} and {@code MeetingRequest}.
+   */
+  public static AttendeeDictionary getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Returns the id of {@code name}, giving it the next id if it has none yet.
+   */
+  public int intern(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+
+    Integer id = ids.get(name);
+    return id != null ? id : add(name);
+  }
+
+  /**
+   * Returns the distinct ids of {@code names}, sorted in increasing order, interning any names that
+   * have no id yet.
+   */
+  public int[] internAll(Collection<String> names) {
+    int[] result = new int[names.size()];
+    int count = 0;
+    for (String name : names) {
+      result[count++] = intern(name);
+    }
+    return sortedDistinct(result, count);
+  }
+
+  /**
+   * Returns the id of {@code name}, or -1 if it has never been interned.
+   */
+  public int lookup(String name) {
+    Integer id = ids.get(name);
+    return id != null ? id : -1;
+  }
+
+  /**
+   * Returns the distinct ids of the names that have been interned, sorted in increasing order.
+   * Names that have never been interned are left out, since nothing can refer to them yet.
+   */
+  public int[] lookupAll(Collection<String> names) {
+    int[] result = new int[names.size()];
+    int count = 0;
+    for (String name : names) {
+      int id = lookup(name);
+      if (id >= 0) {
+        result[count++] = id;
+      }
+    }
+    return sortedDistinct(result, count);
+  }
+
+  /**
+   * Returns the name with id {@code id}.
+   */
+  public String name(int id) {
+    String[] current = names;
+    if (id < 0 || id >= current.length || current[id] == null) {
+      throw new IllegalArgumentException("unknown attendee id " + id);
+    }
+    return current[id];
+  }
+
+  /**
+   * Returns the number of names that have been interned. Every id is smaller than this.
+   */
+  public int size() {
+    synchronized (this) {
+      return size;
+    }
+  }
+
+  /**
+   * Checks if two sorted id arrays share an id.
+   */
+  static boolean intersects(int[] a, int[] b) {
+    int i = 0;
+    int j = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] == b[j]) {
+        return true;
+      } else if (a[i] < b[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return false;
+  }
+
+  private synchronized int add(String name) {
+    Integer existing = ids.get(name);
+    if (existing != null) {
+      return existing;
+    }
+
+    int id = size++;
+    String[] current = names;
+    if (id == current.length) {
+      current = Arrays.copyOf(current, 2 * current.length);
+    }
+    current[id] = name;
+    names = current;
+    ids.put(name, id);
+    return id;
+  }
+
+  private static int[] sortedDistinct(int[] ids, int count) {
+    Arrays.sort(ids, 0, count);
+    int distinct = 0;
+    for (int i = 0; i < count; i++) {
+      if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+        ids[distinct++] = ids[i];
+      }
+    }
+    return distinct == ids.length ? ids : Arrays.copyOf(ids, distinct);
+  }
+}
@@ -0,0 +1,67 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only set of attendee names backed by sorted, distinct ids in
+ * {@code AttendeeDictionary.getDefault()}. Names are looked up as the set is used, so events can
+ * hand out their attendees without copying them or letting callers change them.
+ */
+final class AttendeeSet extends AbstractSet<String> {
+  private final int[] ids;
+
+  AttendeeSet(int[] ids) {
+    this.ids = ids;
+  }
+
+  @Override
+  public boolean contains(Object name) {
+    if (!(name instanceof String)) {
+      return false;
+    }
+    int id = AttendeeDictionary.getDefault().lookup((String) name);
+    return id >= 0 && Arrays.binarySearch(ids, id) >= 0;
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return new Iterator<String>() {
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+        return next < ids.length;
+      }
+
+      @Override
+      public String next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return AttendeeDictionary.getDefault().name(ids[next++]);
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return ids.length;
+  }
+}
@@ -0,0 +1,114 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@code MeetingQueryEngine} that works on one {@code MinuteMask} per attendee. Combining the
+ * attendees' masks and searching them for free time takes the same number of word operations no
+ * matter how many events each attendee has, so precomputed masks make queries predictably fast.
+ */
+public final class BitmapQuery implements MeetingQueryEngine {
+  @Override
+  public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+    if (request.hasQuorum()) {
+      return Intervals.limit(QuorumQuery.query(new EventIndex(events), request), request.getLimit());
+    }
+
+    int[] mandatoryAttendees = request.getAttendeeIds();
+    int[] optionalAttendees = request.getOptionalAttendeeIds();
+
+    MinuteMask mandatoryBusy = new MinuteMask();
+    MinuteMask mandatoryAndOptionalBusy = new MinuteMask();
+
+    for (Event event : events) {
+      int[] attendees = event.attendeeIds();
+      boolean hasMandatory = AttendeeDictionary.intersects(attendees, mandatoryAttendees);
+      boolean hasOptional = !hasMandatory && AttendeeDictionary.intersects(attendees, optionalAttendees);
+
+      if (hasMandatory) {
+        mandatoryBusy.add(event.getWhen());
+      }
+      if (hasMandatory || hasOptional) {
+        mandatoryAndOptionalBusy.add(event.getWhen());
+      }
+    }
+
+    return findAvailableTimes(mandatoryBusy, mandatoryAndOptionalBusy, request);
+  }
+
+  /**
+   * Return time ranges when an event can be scheduled, using masks computed ahead of time with
+   * {@code masksByAttendee}.
+   *
+   * @param masks The busy minutes of every attendee in the booking system.
+   * @param request The specific meeting request that the user is making.
+   * @return The list of available event times.
+   */
+  public Collection<TimeRange> query(Map<String, MinuteMask> masks, MeetingRequest request) {
+    if (request.hasQuorum()) {
+      throw new IllegalArgumentException("Masks cannot count attendees. Use an EventIndex instead.");
+    }
+
+    MinuteMask mandatoryBusy = new MinuteMask();
+    for (String attendee : request.getAttendees()) {
+      MinuteMask mask = masks.get(attendee);
+      if (mask != null) {
+        mandatoryBusy.or(mask);
+      }
+    }
+
+    MinuteMask mandatoryAndOptionalBusy = new MinuteMask();
+    mandatoryAndOptionalBusy.or(mandatoryBusy);
+    for (String attendee : request.getOptionalAttendees()) {
+      MinuteMask mask = masks.get(attendee);
+      if (mask != null) {
+        mandatoryAndOptionalBusy.or(mask);
+      }
+    }
+
+    return findAvailableTimes(mandatoryBusy, mandatoryAndOptionalBusy, request);
+  }
+
+  /**
+   * Builds the mask of busy minutes for every attendee of {@code events}.
+   */
+  public static Map<String, MinuteMask> masksByAttendee(Collection<Event> events) {
+    AttendeeDictionary dictionary = AttendeeDictionary.getDefault();
+    Map<String, MinuteMask> masks = new HashMap<>();
+    for (Event event : events) {
+      for (int attendee : event.attendeeIds()) {
+        masks.computeIfAbsent(dictionary.name(attendee), key -> new MinuteMask()).add(event.getWhen());
+      }
+    }
+    return masks;
+  }
+
+  private static List<TimeRange> findAvailableTimes(
+      MinuteMask mandatoryBusy, MinuteMask mandatoryAndOptionalBusy, MeetingRequest request) {
+    List<TimeRange> availableTimes = new ArrayList<>();
+    mandatoryAndOptionalBusy.addAvailableTimes(request.getDuration(), availableTimes);
+    if (availableTimes.isEmpty()) {
+      // Nothing works for the optional attendees, so only schedule around the mandatory ones.
+      mandatoryBusy.addAvailableTimes(request.getDuration(), availableTimes);
+    }
+    return Intervals.limit(availableTimes, request.getLimit());
+  }
+}
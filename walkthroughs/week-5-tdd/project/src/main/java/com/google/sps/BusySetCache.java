@@ -0,0 +1,192 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A bounded cache of the merged busy times of attendee groups, for teams that query together over
+ * and over. A group that is not cached yet is built from a cached subgroup with one member fewer
+ * when there is one, so a team plus one extra person only merges that person's times into the
+ * team's. The cache listens to its {@code CalendarStore}: a booking is merged into every cached
+ * group that includes one of its attendees, and a cancellation drops those groups so that they are
+ * rebuilt on their next use. When the cache is full, the group that was used least recently is
+ * dropped. Caches are thread-safe, but their store is not, so changes to the store must not run at
+ * the same time as queries.
+ */
+public final class BusySetCache implements CalendarStore.Listener {
+  private final CalendarStore store;
+  private final Map<Set<String>, List<TimeRange>> groups;
+
+  private long hitCount;
+  private long subgroupHitCount;
+  private long missCount;
+
+  /**
+   * Creates an empty cache for the groups of {@code store} and starts listening to it.
+   *
+   * @param store The store whose busy times are cached.
+   * @param maxGroups The most groups to keep. Must be positive.
+   */
+  public BusySetCache(CalendarStore store, int maxGroups) {
+    if (maxGroups <= 0) {
+      throw new IllegalArgumentException("maxGroups must be positive");
+    }
+
+    this.store = store;
+    // An access-ordered map keeps the least recently used group first, ready to be dropped.
+    this.groups = new LinkedHashMap<Set<String>, List<TimeRange>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Set<String>, List<TimeRange>> eldest) {
+        return size() > maxGroups;
+      }
+    };
+    store.addListener(this);
+  }
+
+  /**
+   * Checks if this cache holds busy times read from {@code schedules}.
+   */
+  boolean isFor(ScheduleSource schedules) {
+    return schedules == store;
+  }
+
+  /**
+   * Returns the merged busy times of {@code attendees}, sorted by start.
+   */
+  public synchronized List<TimeRange> getBusyTimes(Collection<String> attendees) {
+    Set<String> group = Collections.unmodifiableSet(new HashSet<>(attendees));
+    List<TimeRange> times = groups.get(group);
+    if (times != null) {
+      hitCount++;
+      return times;
+    }
+
+    times = buildFromSubgroup(group);
+    if (times != null) {
+      subgroupHitCount++;
+    } else {
+      missCount++;
+      times = merge(group);
+    }
+    groups.put(group, times);
+    return times;
+  }
+
+  /**
+   * Returns how many lookups found their whole group in the cache.
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns how many lookups were built from a cached subgroup with one member fewer.
+   */
+  public synchronized long getSubgroupHitCount() {
+    return subgroupHitCount;
+  }
+
+  /**
+   * Returns how many lookups merged every member's busy times from scratch.
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Returns the number of groups in the cache.
+   */
+  public synchronized int size() {
+    return groups.size();
+  }
+
+  @Override
+  public synchronized void eventAdded(Event event) {
+    // Adding a time can only grow the merged times, so merge it into every group it touches.
+    List<TimeRange> time = Collections.singletonList(event.getWhen());
+    for (Map.Entry<Set<String>, List<TimeRange>> entry : groups.entrySet()) {
+      if (includesAny(entry.getKey(), event)) {
+        entry.setValue(
+            unmodifiable(MergeStrategy.K_WAY_MERGE.merge(Arrays.asList(entry.getValue(), time))));
+      }
+    }
+  }
+
+  @Override
+  public synchronized void eventRemoved(Event event) {
+    // Removing a time can split a merged block, which only the members' own times can tell, so
+    // drop the groups it touches. Their subgroups without the event's attendees stay cached.
+    Iterator<Set<String>> iterator = groups.keySet().iterator();
+    while (iterator.hasNext()) {
+      if (includesAny(iterator.next(), event)) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Builds the busy times of {@code group} from a cached group with one member fewer, or returns
+   * null if there is none.
+   */
+  private List<TimeRange> buildFromSubgroup(Set<String> group) {
+    if (group.size() < 2) {
+      return null;
+    }
+
+    for (String member : group) {
+      Set<String> subgroup = new HashSet<>(group);
+      subgroup.remove(member);
+      // Using a subgroup counts as using it, so teams that are often extended stay cached.
+      List<TimeRange> subgroupTimes = groups.get(subgroup);
+      if (subgroupTimes != null) {
+        return unmodifiable(
+            MergeStrategy.K_WAY_MERGE.merge(Arrays.asList(subgroupTimes, store.getTimes(member))));
+      }
+    }
+    return null;
+  }
+
+  private List<TimeRange> merge(Set<String> group) {
+    List<List<TimeRange>> schedules = new ArrayList<>(group.size());
+    for (String member : group) {
+      schedules.add(store.getTimes(member));
+    }
+    return unmodifiable(MergeStrategy.K_WAY_MERGE.merge(schedules));
+  }
+
+  private static boolean includesAny(Set<String> group, Event event) {
+    for (String attendee : event.getAttendees()) {
+      if (group.contains(attendee)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static List<TimeRange> unmodifiable(List<TimeRange> times) {
+    return Collections.unmodifiableList(times);
+  }
+}
@@ -0,0 +1,228 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A read-only calendar stored in a compact binary file and read through a memory-mapped buffer.
+ * Opening a snapshot only reads the attendee names; event times are read from the mapped file as
+ * queries need them, so no {@code Event} objects are created and the operating system pages the
+ * file in on demand.
+ *
+ * <p>Files are laid out as big-endian ints, in this order:
+ *
+ * <ul>
+ *   <li>A header: {@code MAGIC}, {@code FORMAT_VERSION}, the attendee count and the event count.
+ *   <li>Every event time as a start and a duration, sorted by start.
+ *   <li>One more offset than there are attendees. Attendee i's events are the event ids from offset
+ *       i up to offset i + 1 in the next section.
+ *   <li>The event ids of every attendee's events. Event ids are positions in the event time section,
+ *       so each attendee's ids are sorted by start time.
+ *   <li>The attendee names, each as a length followed by that many bytes of UTF-8, in id order.
+ * </ul>
+ *
+ * <p>Snapshots are thread-safe. Files must be smaller than 2 GiB.
+ */
+public final class CalendarSnapshot implements ScheduleSource {
+  /** The first four bytes of every snapshot: "CALS". */
+  public static final int MAGIC = 0x43414c53;
+
+  /** The version of the layout written by {@code write}. */
+  public static final int FORMAT_VERSION = 1;
+
+  private static final int HEADER_BYTES = 4 * Integer.BYTES;
+
+  private final ByteBuffer buffer;
+  private final int eventCount;
+  private final int eventsOffset;
+  private final int offsetsOffset;
+  private final int postingsOffset;
+  private final Map<String, Integer> attendeeIds;
+
+  private CalendarSnapshot(ByteBuffer buffer) throws IOException {
+    if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+      throw new IOException("not a calendar snapshot");
+    }
+    if (buffer.getInt(4) != FORMAT_VERSION) {
+      throw new IOException("unsupported calendar snapshot version " + buffer.getInt(4));
+    }
+
+    this.buffer = buffer;
+    int attendeeCount = buffer.getInt(8);
+    this.eventCount = buffer.getInt(12);
+    this.eventsOffset = HEADER_BYTES;
+    this.offsetsOffset = eventsOffset + 2 * Integer.BYTES * eventCount;
+    this.postingsOffset = offsetsOffset + Integer.BYTES * (attendeeCount + 1);
+    if (postingsOffset > buffer.limit()) {
+      throw new IOException("truncated calendar snapshot");
+    }
+
+    int namesOffset = postingsOffset + Integer.BYTES * offset(attendeeCount);
+    if (namesOffset > buffer.limit()) {
+      throw new IOException("truncated calendar snapshot");
+    }
+
+    this.attendeeIds = new HashMap<>(2 * attendeeCount);
+    ByteBuffer names = buffer.duplicate();
+    names.position(namesOffset);
+    try {
+      for (int id = 0; id < attendeeCount; id++) {
+        byte[] name = new byte[names.getInt()];
+        names.get(name);
+        attendeeIds.put(new String(name, StandardCharsets.UTF_8), id);
+      }
+    } catch (BufferUnderflowException e) {
+      throw new IOException("truncated calendar snapshot", e);
+    }
+  }
+
+  /**
+   * Opens a snapshot written by {@code write}, mapping the whole file into memory.
+   *
+   * @throws IOException If the file cannot be read or is not a calendar snapshot.
+   */
+  public static CalendarSnapshot open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      // The mapping stays valid after the channel is closed.
+      return new CalendarSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Writes {@code events} to a new snapshot file, replacing any file already at {@code path}.
+   */
+  public static void write(Collection<Event> events, Path path) throws IOException {
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+      write(events, out);
+    }
+  }
+
+  /**
+   * Writes {@code events} as a snapshot to {@code out}, leaving the stream open.
+   */
+  public static void write(Collection<Event> events, OutputStream out) throws IOException {
+    List<Event> sortedEvents = new ArrayList<>(events);
+    sortedEvents.sort((a, b) -> TimeRange.ORDER_BY_START.compare(a.getWhen(), b.getWhen()));
+
+    // Walking the events in order of start time keeps every attendee's event ids sorted by start.
+    Map<String, List<Integer>> eventIdsByAttendee = new LinkedHashMap<>();
+    for (int id = 0; id < sortedEvents.size(); id++) {
+      for (String attendee : sortedEvents.get(id).getAttendees()) {
+        eventIdsByAttendee.computeIfAbsent(attendee, key -> new ArrayList<>()).add(id);
+      }
+    }
+
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(FORMAT_VERSION);
+    data.writeInt(eventIdsByAttendee.size());
+    data.writeInt(sortedEvents.size());
+
+    for (Event event : sortedEvents) {
+      data.writeInt(event.getWhen().start());
+      data.writeInt(event.getWhen().duration());
+    }
+
+    int offset = 0;
+    data.writeInt(offset);
+    for (List<Integer> eventIds : eventIdsByAttendee.values()) {
+      offset += eventIds.size();
+      data.writeInt(offset);
+    }
+
+    for (List<Integer> eventIds : eventIdsByAttendee.values()) {
+      for (int id : eventIds) {
+        data.writeInt(id);
+      }
+    }
+
+    for (String attendee : eventIdsByAttendee.keySet()) {
+      byte[] name = attendee.getBytes(StandardCharsets.UTF_8);
+      data.writeInt(name.length);
+      data.write(name);
+    }
+    data.flush();
+  }
+
+  /**
+   * Returns a read-only list of the times when {@code attendee} is at an event, sorted by start
+   * time. The list reads the mapped file as it is used. Attendees without any events have an empty
+   * list.
+   */
+  @Override
+  public List<TimeRange> getTimes(String attendee) {
+    Integer id = attendeeIds.get(attendee);
+    if (id == null) {
+      return Collections.emptyList();
+    }
+
+    int first = offset(id);
+    int size = offset(id + 1) - first;
+    return new AbstractList<TimeRange>() {
+      @Override
+      public TimeRange get(int index) {
+        if (index < 0 || index >= size) {
+          throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int event = buffer.getInt(postingsOffset + Integer.BYTES * (first + index));
+        int position = eventsOffset + 2 * Integer.BYTES * event;
+        return TimeRange.fromStartDuration(buffer.getInt(position), buffer.getInt(position + Integer.BYTES));
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  /**
+   * Returns the number of events in the snapshot.
+   */
+  public int getEventCount() {
+    return eventCount;
+  }
+
+  /**
+   * Returns the number of attendees with at least one event.
+   */
+  public int getAttendeeCount() {
+    return attendeeIds.size();
+  }
+
+  private int offset(int attendeeId) {
+    return buffer.getInt(offsetsOffset + Integer.BYTES * attendeeId);
+  }
+}
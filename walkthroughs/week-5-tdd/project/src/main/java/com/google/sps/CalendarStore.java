@@ -0,0 +1,261 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A mutable collection of events that keeps every attendee's busy times up to date as events are
+ * added and removed. A booking change only touches the schedules of that event's attendees and
+ * takes O(log n) time for each of them, so queries can read each attendee's merged busy times
+ * instead of merging the whole calendar again. Stores are not thread-safe.
+ */
+public final class CalendarStore implements ScheduleSource {
+  // How many copies of each event are stored, so that removing an event can be checked.
+  private final Map<Event, Integer> eventCounts = new HashMap<>();
+  private final Map<String, Schedule> schedules = new HashMap<>();
+
+  // Counts every change to the store.
+  private long version;
+
+  private final List<Listener> listeners = new ArrayList<>();
+
+  /**
+   * Told about every change to a store, after the change is made.
+   */
+  public interface Listener {
+    /**
+     * Called after one copy of {@code event} is added.
+     */
+    void eventAdded(Event event);
+
+    /**
+     * Called after one copy of {@code event} is removed.
+     */
+    void eventRemoved(Event event);
+  }
+
+  /**
+   * Creates an empty store.
+   */
+  public CalendarStore() {}
+
+  /**
+   * Creates a store holding {@code events}.
+   *
+   * @param events The events to add. Must be non-null.
+   */
+  public CalendarStore(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty collection instead.");
+    }
+
+    for (Event event : events) {
+      addEvent(event);
+    }
+  }
+
+  /**
+   * Adds an event, making its attendees busy for the event's time. Adding the same event twice
+   * stores two copies of it.
+   */
+  public void addEvent(Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    eventCounts.merge(event, 1, Integer::sum);
+    version++;
+    for (String attendee : event.getAttendees()) {
+      schedules.computeIfAbsent(attendee, key -> new Schedule()).add(event.getWhen());
+    }
+    for (Listener listener : listeners) {
+      listener.eventAdded(event);
+    }
+  }
+
+  /**
+   * Removes one copy of an event.
+   *
+   * @return {@code true} if the event was in the store.
+   */
+  public boolean removeEvent(Event event) {
+    Integer count = eventCounts.get(event);
+    if (count == null) {
+      return false;
+    }
+
+    if (count == 1) {
+      eventCounts.remove(event);
+    } else {
+      eventCounts.put(event, count - 1);
+    }
+    version++;
+
+    for (String attendee : event.getAttendees()) {
+      Schedule schedule = schedules.get(attendee);
+      schedule.remove(event.getWhen());
+      if (schedule.isEmpty()) {
+        schedules.remove(attendee);
+      }
+    }
+    for (Listener listener : listeners) {
+      listener.eventRemoved(event);
+    }
+    return true;
+  }
+
+  /**
+   * Tells {@code listener} about every later change to the store.
+   */
+  public void addListener(Listener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("listener cannot be null");
+    }
+    listeners.add(listener);
+  }
+
+  /**
+   * Stops telling {@code listener} about changes to the store.
+   */
+  public void removeListener(Listener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Returns the number of events in the store.
+   */
+  public int size() {
+    int size = 0;
+    for (int count : eventCounts.values()) {
+      size += count;
+    }
+    return size;
+  }
+
+  /**
+   * Returns the number of times an event has been added to or removed from the store.
+   */
+  @Override
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns a read-only list of the merged times when {@code attendee} is busy, sorted by start
+   * time. None of the returned ranges overlap, but ranges may touch, just as in
+   * {@code MergeStrategy}.
+   */
+  @Override
+  public List<TimeRange> getTimes(String attendee) {
+    Schedule schedule = schedules.get(attendee);
+    return schedule == null ? Collections.emptyList() : schedule.getTimes();
+  }
+
+  /**
+   * The busy times of one attendee, kept as counts of how many event times start, end or sit at each
+   * minute. Adding or removing a time only changes the counts at its two ends, which takes O(log n)
+   * time for n distinct minutes, and removing a time never has to look at the times it was merged
+   * with. The merged times are built from the counts in one pass the first time they are read
+   * after a change.
+   */
+  private static final class Schedule {
+    // Indexes into the counts kept for each minute.
+    private static final int STARTS = 0;
+    private static final int ENDS = 1;
+    private static final int EMPTY = 2;
+
+    // For every minute where an event time starts or ends, how many times with a duration start
+    // there, how many end there, and how many times without any duration sit there.
+    private final TreeMap<Integer, int[]> counts = new TreeMap<>();
+
+    // The merged times, built on first use after every change.
+    private List<TimeRange> times;
+
+    void add(TimeRange range) {
+      change(range, 1);
+    }
+
+    void remove(TimeRange range) {
+      change(range, -1);
+    }
+
+    boolean isEmpty() {
+      return counts.isEmpty();
+    }
+
+    /**
+     * Returns the times merged the same way as {@code MergeStrategy}: times that overlap are merged
+     * and times that only touch are kept apart. Times without any duration that fall outside every
+     * other time are kept once per event, because they still split the free time around them.
+     */
+    List<TimeRange> getTimes() {
+      if (times == null) {
+        List<TimeRange> rebuilt = new ArrayList<>();
+        // How many times with a duration are under way, and where the block holding them started.
+        int active = 0;
+        int blockStart = 0;
+        for (Map.Entry<Integer, int[]> entry : counts.entrySet()) {
+          int minute = entry.getKey();
+          int[] count = entry.getValue();
+
+          // The block ends here only if every time in it does. Otherwise a time runs across this
+          // minute and the times starting here overlap it.
+          if (active > 0 && active == count[ENDS]) {
+            rebuilt.add(TimeRange.fromStartEnd(blockStart, minute, false));
+          }
+          active -= count[ENDS];
+          if (active == 0 && count[STARTS] > 0) {
+            blockStart = minute;
+          }
+          active += count[STARTS];
+
+          // Times without any duration inside a block, or at its start, are part of it.
+          if (active == 0) {
+            for (int i = 0; i < count[EMPTY]; i++) {
+              rebuilt.add(TimeRange.fromStartDuration(minute, 0));
+            }
+          }
+        }
+        times = Collections.unmodifiableList(rebuilt);
+      }
+      return times;
+    }
+
+    private void change(TimeRange range, int delta) {
+      if (range.duration() == 0) {
+        count(range.start(), EMPTY, delta);
+      } else {
+        count(range.start(), STARTS, delta);
+        count(range.end(), ENDS, delta);
+      }
+      times = null;
+    }
+
+    private void count(int minute, int kind, int delta) {
+      int[] count = counts.computeIfAbsent(minute, key -> new int[3]);
+      count[kind] += delta;
+      if (count[STARTS] == 0 && count[ENDS] == 0 && count[EMPTY] == 0) {
+        counts.remove(minute);
+      }
+    }
+  }
+}
@@ -0,0 +1,133 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * Class representing a span of time that is not limited to one day. Times are counted in minutes
+ * since the Unix epoch, so day {@code d} starts at minute {@code d * MINUTES_PER_DAY}. Like
+ * {@code TimeRange}, the start is inclusive and the end is exclusive.
+ */
+public final class EpochRange {
+  public static final int MINUTES_PER_DAY = 24 * 60;
+
+  private final long start;
+  private final long end;
+
+  private EpochRange(long start, long end) {
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Returns the start of the range in epoch minutes.
+   */
+  public long start() {
+    return start;
+  }
+
+  /**
+   * Returns the end of the range in epoch minutes. This ending value is the closing exclusive bound.
+   */
+  public long end() {
+    return end;
+  }
+
+  /**
+   * Returns the number of minutes between the start and end.
+   */
+  public long duration() {
+    return end - start;
+  }
+
+  /**
+   * Checks if two ranges overlap, meaning that at least one minute is in both ranges.
+   */
+  public boolean overlaps(EpochRange other) {
+    return start < other.end && other.start < end;
+  }
+
+  /**
+   * Checks if {@code minute} falls within this range.
+   */
+  public boolean contains(long minute) {
+    return start <= minute && minute < end;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof EpochRange && equals(this, (EpochRange) other);
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(start) ^ Long.hashCode(end);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Range: [%d, %d)", start, end);
+  }
+
+  private static boolean equals(EpochRange a, EpochRange b) {
+    return a.start == b.start && a.end == b.end;
+  }
+
+  /**
+   * Returns the day that contains {@code minute}, counted in days since the Unix epoch.
+   */
+  public static long dayOf(long minute) {
+    return Math.floorDiv(minute, MINUTES_PER_DAY);
+  }
+
+  /**
+   * Returns the first minute of {@code day}.
+   */
+  public static long startOfDay(long day) {
+    return day * MINUTES_PER_DAY;
+  }
+
+  /**
+   * Creates an {@code EpochRange} from {@code start} (inclusive) to {@code end} (exclusive).
+   */
+  public static EpochRange fromStartEnd(long start, long end) {
+    if (end < start) {
+      throw new IllegalArgumentException("end cannot come before start");
+    }
+    return new EpochRange(start, end);
+  }
+
+  /**
+   * Creates an {@code EpochRange} starting at {@code start} with a duration equal to
+   * {@code duration}.
+   */
+  public static EpochRange fromStartDuration(long start, long duration) {
+    return fromStartEnd(start, start + duration);
+  }
+
+  /**
+   * Creates an {@code EpochRange} covering {@code days} whole days starting with {@code firstDay}.
+   * For example, {@code ofDays(today, 14)} is the next two weeks.
+   */
+  public static EpochRange ofDays(long firstDay, int days) {
+    return fromStartEnd(startOfDay(firstDay), startOfDay(firstDay + days));
+  }
+
+  /**
+   * Creates an {@code EpochRange} for the single-day {@code range} on {@code day}.
+   */
+  public static EpochRange onDay(long day, TimeRange range) {
+    return fromStartEnd(startOfDay(day) + range.start(), startOfDay(day) + range.end());
+  }
+}
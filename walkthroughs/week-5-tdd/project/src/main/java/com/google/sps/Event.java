@@ -14,9 +14,8 @@
 
 package com.google.sps;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -26,7 +25,9 @@ import java.util.Set;
 public final class Event {
   private final String title;
   private final TimeRange when;
-  private final Set<String> attendees = new HashSet<>();
+  // The ids of the attendees in {@code AttendeeDictionary.getDefault()}, sorted and distinct. This
+  // takes far less memory than a set of names, and lets engines match attendees by id.
+  private final int[] attendeeIds;
 
   /**
    * Creates a new event.
@@ -50,7 +51,7 @@ public final class Event {
 
     this.title = title;
     this.when = when;
-    this.attendees.addAll(attendees);
+    this.attendeeIds = AttendeeDictionary.getDefault().internAll(attendees);
   }
 
   /**
@@ -71,9 +72,17 @@ public final class Event {
    * Returns a read-only set of required attendees for this event.
    */
   public Set<String> getAttendees() {
-    // Return the attendees as an unmodifiable set so that the caller can't change our
-    // internal data.
-    return Collections.unmodifiableSet(attendees);
+    // Return a read-only view that looks names up as it is used, so that the caller can't change
+    // our internal data.
+    return new AttendeeSet(attendeeIds);
+  }
+
+  /**
+   * Returns the sorted, distinct ids of the attendees in {@code AttendeeDictionary.getDefault()}.
+   * The array is shared and must not be changed.
+   */
+  int[] attendeeIds() {
+    return attendeeIds;
   }
 
   @Override
@@ -89,8 +98,8 @@ public final class Event {
   }
 
   private static boolean equals(Event a, Event b) {
-    // {@code attendees} must be a set for equals to work as expected. According to the {@code Set}
-    // interface documentation, equals will check for set-equality across all set implementations.
-    return a.title.equals(b.title) && a.when.equals(b.when) && a.attendees.equals(b.attendees);
+    // Every event uses the same dictionary and keeps its ids sorted and distinct, so equal sets of
+    // attendees have equal arrays.
+    return a.title.equals(b.title) && a.when.equals(b.when) && Arrays.equals(a.attendeeIds, b.attendeeIds);
   }
 }
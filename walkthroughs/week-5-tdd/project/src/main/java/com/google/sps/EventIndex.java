@@ -0,0 +1,96 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index from each attendee to the times of the events they attend, sorted by start time. Building
+ * the index once for a collection of events lets each query look only at the requested attendees'
+ * events instead of scanning every event in the booking system. Attendees are found by their id in
+ * {@code AttendeeDictionary.getDefault()}. Indexes are read-only.
+ */
+public final class EventIndex implements ScheduleSource {
+  private static final List<TimeRange> NO_TIMES = Collections.emptyList();
+
+  // The ids of the attendees with events, sorted, and the times of the attendee at the same
+  // position. Only attendees of the indexed events take up space, however many names the
+  // dictionary holds.
+  private final int[] ids;
+  private final List<List<TimeRange>> timesByPosition;
+
+  /**
+   * Creates an index over a snapshot of events.
+   *
+   * @param events The complete collection of events in the booking system. Must be non-null.
+   */
+  public EventIndex(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty collection instead.");
+    }
+
+    Map<Integer, List<TimeRange>> timesById = new HashMap<>();
+    for (Event event : events) {
+      for (int attendee : event.attendeeIds()) {
+        timesById.computeIfAbsent(attendee, id -> new ArrayList<>()).add(event.getWhen());
+      }
+    }
+
+    ids = new int[timesById.size()];
+    int count = 0;
+    for (int attendee : timesById.keySet()) {
+      ids[count++] = attendee;
+    }
+    Arrays.sort(ids);
+
+    timesByPosition = new ArrayList<>(ids.length);
+    for (int attendee : ids) {
+      List<TimeRange> times = timesById.get(attendee);
+      times.sort(TimeRange.ORDER_BY_START);
+      timesByPosition.add(Collections.unmodifiableList(times));
+    }
+  }
+
+  /**
+   * Returns a read-only list of the times when {@code attendee} is at an event, sorted by start
+   * time. Attendees without any events have an empty list.
+   */
+  @Override
+  public List<TimeRange> getTimes(String attendee) {
+    int id = AttendeeDictionary.getDefault().lookup(attendee);
+    int position = id >= 0 ? Arrays.binarySearch(ids, id) : -1;
+    return position >= 0 ? timesByPosition.get(position) : NO_TIMES;
+  }
+
+  /**
+   * Returns a read-only set of every attendee that has at least one event.
+   */
+  public Set<String> getAttendees() {
+    AttendeeDictionary dictionary = AttendeeDictionary.getDefault();
+    Set<String> attendees = new HashSet<>();
+    for (int attendee : ids) {
+      attendees.add(dictionary.name(attendee));
+    }
+    return Collections.unmodifiableSet(attendees);
+  }
+}
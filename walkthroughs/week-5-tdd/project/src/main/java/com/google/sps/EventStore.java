@@ -0,0 +1,493 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A thread-safe collection of events that many threads can book and query at once. The store
+ * always holds an immutable {@code Snapshot}; readers take the current snapshot without locking and
+ * can query it for as long as they like, while writers build a new snapshot and publish it with a
+ * single compare-and-set. Writers group changes into a {@code Batch} so that several bookings are
+ * published together.
+ *
+ * <p>Snapshots share everything a change does not touch. Attendees' schedules live in fixed-size
+ * chunks of a two-level array indexed by attendee id, so a change copies only the top-level array,
+ * the chunks of the attendees it touches and those attendees' schedules.
+ */
+public final class EventStore {
+  private static final int CHUNK_BITS = 8;
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private final AtomicReference<Snapshot> current =
+      new AtomicReference<>(new Snapshot(new Schedule[0][], 0, 0));
+
+  /**
+   * Creates an empty store.
+   */
+  public EventStore() {}
+
+  /**
+   * Creates a store holding {@code events}.
+   *
+   * @param events The events to add. Must be non-null.
+   */
+  public EventStore(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty collection instead.");
+    }
+
+    Batch batch = batch();
+    for (Event event : events) {
+      batch.add(event);
+    }
+    batch.commit();
+  }
+
+  /**
+   * Returns the latest snapshot. This never blocks.
+   */
+  public Snapshot snapshot() {
+    return current.get();
+  }
+
+  /**
+   * Starts a new batch of changes. Nothing changes until the batch is committed.
+   */
+  public Batch batch() {
+    return new Batch();
+  }
+
+  /**
+   * Adds one event and publishes the result.
+   *
+   * @return The snapshot that includes the event.
+   */
+  public Snapshot add(Event event) {
+    return batch().add(event).commit();
+  }
+
+  /**
+   * Removes one copy of an event and publishes the result.
+   *
+   * @return The snapshot without the event.
+   */
+  public Snapshot remove(Event event) {
+    return batch().remove(event).commit();
+  }
+
+  /**
+   * Changes to make to the store together. Batches are not thread-safe; each writer uses its own.
+   */
+  public final class Batch {
+    // The changes in the order they were made.
+    private final List<Change> changes = new ArrayList<>();
+
+    // The attendees whose schedules must not have changed, and the versions they must still have.
+    private final List<String> expectedAttendees = new ArrayList<>();
+    private final List<Long> expectedVersions = new ArrayList<>();
+
+    private Batch() {}
+
+    /**
+     * Adds an event, making its attendees busy for the event's time. Adding the same event twice
+     * stores two copies of it. Events without attendees make nobody busy and are not stored.
+     */
+    public Batch add(Event event) {
+      if (event == null) {
+        throw new IllegalArgumentException("event cannot be null");
+      }
+
+      changes.add(new Change(event, true));
+      return this;
+    }
+
+    /**
+     * Removes one copy of an event. Removing an event that is not in the store has no effect.
+     */
+    public Batch remove(Event event) {
+      if (event == null) {
+        throw new IllegalArgumentException("event cannot be null");
+      }
+
+      changes.add(new Change(event, false));
+      return this;
+    }
+
+    /**
+     * Only commits the batch if {@code attendee}'s events still have version {@code version}, as
+     * returned by {@code Snapshot.getVersion(String)}. This lets a writer that chose its changes
+     * from a snapshot check that nobody has booked the same attendees since, without locking out
+     * writers that book other attendees.
+     */
+    public Batch expectVersion(String attendee, long version) {
+      expectedAttendees.add(attendee);
+      expectedVersions.add(version);
+      return this;
+    }
+
+    /**
+     * Applies every change in the batch to the latest snapshot and publishes the result. If another
+     * writer publishes first, the changes are applied again to the newer snapshot, as long as the
+     * versions given to {@code expectVersion} still hold.
+     *
+     * @return The snapshot that includes the changes, or null if an expected version no longer
+     *     holds. Nothing is changed in that case.
+     */
+    public Snapshot commit() {
+      while (true) {
+        Snapshot base = current.get();
+        for (int i = 0; i < expectedAttendees.size(); i++) {
+          if (base.getVersion(expectedAttendees.get(i)) != expectedVersions.get(i)) {
+            return null;
+          }
+        }
+
+        Snapshot next = apply(base);
+        if (next == base || current.compareAndSet(base, next)) {
+          return next;
+        }
+      }
+    }
+
+    /**
+     * Returns a new snapshot with the changes applied to {@code base}, or {@code base} itself if
+     * nothing changed. Only the chunks and schedules that change are copied, and each schedule is
+     * rebuilt once however many of the changes touch it, so a batch costs time linear in the sizes
+     * of the schedules it touches plus the number of changes.
+     */
+    Snapshot apply(Snapshot base) {
+      if (changes.isEmpty()) {
+        return base;
+      }
+
+      // Decide which removals take effect, in order: an event can be removed if the base holds a
+      // copy of it or an earlier change in the batch added one.
+      Map<Event, Integer> copies = countCopies(base.chunks);
+      Map<Integer, AttendeeChanges> changesByAttendee = new HashMap<>();
+      int size = base.size;
+      for (Change change : changes) {
+        Event event = change.event;
+        int[] attendees = event.attendeeIds();
+        if (attendees.length == 0) {
+          continue;
+        }
+
+        if (change.addition) {
+          copies.merge(event, 1, Integer::sum);
+        } else {
+          Integer count = copies.get(event);
+          if (count == null || count == 0) {
+            continue;
+          }
+          copies.put(event, count - 1);
+        }
+
+        for (int attendee : attendees) {
+          changesByAttendee.computeIfAbsent(attendee, id -> new AttendeeChanges()).add(change);
+        }
+        size += change.addition ? 1 : -1;
+      }
+
+      if (changesByAttendee.isEmpty()) {
+        return base;
+      }
+
+      Schedule[][] chunks = base.chunks;
+      int lastChunk = Collections.max(changesByAttendee.keySet()) >>> CHUNK_BITS;
+      chunks = lastChunk >= chunks.length ? Arrays.copyOf(chunks, lastChunk + 1) : chunks.clone();
+      // Tracks which chunks this batch has already copied, so each is copied at most once.
+      boolean[] copied = new boolean[chunks.length];
+      for (Map.Entry<Integer, AttendeeChanges> entry : changesByAttendee.entrySet()) {
+        int attendee = entry.getKey();
+        int chunk = attendee >>> CHUNK_BITS;
+        if (!copied[chunk]) {
+          chunks[chunk] = chunks[chunk] == null ? new Schedule[CHUNK_SIZE] : chunks[chunk].clone();
+          copied[chunk] = true;
+        }
+
+        Schedule schedule = chunks[chunk][attendee & CHUNK_MASK];
+        chunks[chunk][attendee & CHUNK_MASK] = entry.getValue().applyTo(schedule);
+      }
+
+      return new Snapshot(chunks, size, base.version + 1);
+    }
+
+    /**
+     * Counts the copies in {@code chunks} of every event that the batch removes. Every attendee's
+     * schedule holds the event, so only its first attendee's schedule is read, once for all the
+     * removals that share that attendee.
+     */
+    private Map<Event, Integer> countCopies(Schedule[][] chunks) {
+      Map<Integer, Set<Event>> removalsByAttendee = new HashMap<>();
+      for (Change change : changes) {
+        int[] attendees = change.event.attendeeIds();
+        if (!change.addition && attendees.length > 0) {
+          removalsByAttendee.computeIfAbsent(attendees[0], id -> new HashSet<>()).add(change.event);
+        }
+      }
+
+      Map<Event, Integer> copies = new HashMap<>();
+      for (Map.Entry<Integer, Set<Event>> entry : removalsByAttendee.entrySet()) {
+        Schedule schedule = get(chunks, entry.getKey());
+        if (schedule == null) {
+          continue;
+        }
+        for (Event event : schedule.events) {
+          if (entry.getValue().contains(event)) {
+            copies.merge(event, 1, Integer::sum);
+          }
+        }
+      }
+      return copies;
+    }
+  }
+
+  /**
+   * The changes in a batch that take effect for one attendee.
+   */
+  private static final class AttendeeChanges {
+    private final List<Event> additions = new ArrayList<>();
+    private final Map<Event, Integer> removals = new HashMap<>();
+    private int count;
+
+    void add(Change change) {
+      if (change.addition) {
+        additions.add(change.event);
+      } else {
+        removals.merge(change.event, 1, Integer::sum);
+      }
+      count++;
+    }
+
+    /**
+     * Returns a new schedule with every change applied to {@code schedule}, which may be null if
+     * the attendee had no events.
+     */
+    Schedule applyTo(Schedule schedule) {
+      Event[] events = schedule == null ? Schedule.NO_EVENTS : schedule.events;
+      long version = schedule == null ? 0 : schedule.version;
+
+      // Removals take copies from the existing events first, and from this batch's additions only
+      // if the event was added by the batch itself.
+      List<Event> kept = new ArrayList<>(events.length);
+      for (Event event : events) {
+        Integer remaining = removals.get(event);
+        if (remaining != null && remaining > 0) {
+          removals.put(event, remaining - 1);
+        } else {
+          kept.add(event);
+        }
+      }
+      List<Event> added = new ArrayList<>(additions.size());
+      for (Event event : additions) {
+        Integer remaining = removals.get(event);
+        if (remaining != null && remaining > 0) {
+          removals.put(event, remaining - 1);
+        } else {
+          added.add(event);
+        }
+      }
+
+      // New events go after every event that starts at or before them, keeping the events sorted.
+      // The sort is stable, so events added at the same start stay in the order they were added.
+      added.sort(Comparator.comparingInt(event -> event.getWhen().start()));
+      Event[] updated = new Event[kept.size() + added.size()];
+      int keptIndex = 0;
+      int addedIndex = 0;
+      for (int i = 0; i < updated.length; i++) {
+        if (addedIndex == added.size()
+            || (keptIndex < kept.size()
+                && kept.get(keptIndex).getWhen().start() <= added.get(addedIndex).getWhen().start())) {
+          updated[i] = kept.get(keptIndex++);
+        } else {
+          updated[i] = added.get(addedIndex++);
+        }
+      }
+      return new Schedule(updated, version + count);
+    }
+  }
+
+  /**
+   * One event to add or remove.
+   */
+  private static final class Change {
+    private final Event event;
+    private final boolean addition;
+
+    Change(Event event, boolean addition) {
+      this.event = event;
+      this.addition = addition;
+    }
+  }
+
+  private static boolean contains(Schedule[][] chunks, Event event) {
+    // Every attendee's schedule holds the event, so checking one of them is enough.
+    Schedule schedule = get(chunks, event.attendeeIds()[0]);
+    return schedule != null && schedule.indexOf(event) >= 0;
+  }
+
+  private static Schedule get(Schedule[][] chunks, int attendee) {
+    int chunk = attendee >>> CHUNK_BITS;
+    if (attendee < 0 || chunk >= chunks.length || chunks[chunk] == null) {
+      return null;
+    }
+    return chunks[chunk][attendee & CHUNK_MASK];
+  }
+
+  /**
+   * The events of an {@code EventStore} at one moment. Snapshots never change, so they can be
+   * queried from any thread without locking while the store moves on.
+   */
+  public static final class Snapshot implements ScheduleSource {
+    private final Schedule[][] chunks;
+    private final int size;
+    private final long version;
+
+    private Snapshot(Schedule[][] chunks, int size, long version) {
+      this.chunks = chunks;
+      this.size = size;
+      this.version = version;
+    }
+
+    /**
+     * Returns a read-only list of the times when {@code attendee} is at an event, sorted by start
+     * time. Attendees without any events have an empty list.
+     */
+    @Override
+    public List<TimeRange> getTimes(String attendee) {
+      Schedule schedule = get(chunks, AttendeeDictionary.getDefault().lookup(attendee));
+      return schedule == null ? Collections.emptyList() : schedule.times;
+    }
+
+    /**
+     * Returns a read-only list of the events that {@code attendee} attends, sorted by start time.
+     */
+    public List<Event> getEvents(String attendee) {
+      Schedule schedule = get(chunks, AttendeeDictionary.getDefault().lookup(attendee));
+      return schedule == null
+          ? Collections.emptyList()
+          : Collections.unmodifiableList(Arrays.asList(schedule.events));
+    }
+
+    /**
+     * Returns the number of times that {@code attendee}'s events have changed, or zero if they
+     * never had any. Comparing this between two snapshots tells whether the attendee was booked in
+     * between.
+     */
+    public long getVersion(String attendee) {
+      Schedule schedule = get(chunks, AttendeeDictionary.getDefault().lookup(attendee));
+      return schedule == null ? 0 : schedule.version;
+    }
+
+    /**
+     * Checks if the snapshot holds at least one copy of {@code event}.
+     */
+    public boolean contains(Event event) {
+      return event.attendeeIds().length > 0 && EventStore.contains(chunks, event);
+    }
+
+    /**
+     * Returns every event in the snapshot, in no particular order.
+     */
+    public List<Event> getEvents() {
+      List<Event> events = new ArrayList<>(size);
+      for (int chunk = 0; chunk < chunks.length; chunk++) {
+        if (chunks[chunk] == null) {
+          continue;
+        }
+        for (int index = 0; index < CHUNK_SIZE; index++) {
+          Schedule schedule = chunks[chunk][index];
+          if (schedule == null) {
+            continue;
+          }
+          // Every attendee's schedule holds the event, so only take it from its first attendee's.
+          int attendee = (chunk << CHUNK_BITS) | index;
+          for (Event event : schedule.events) {
+            if (event.attendeeIds()[0] == attendee) {
+              events.add(event);
+            }
+          }
+        }
+      }
+      return events;
+    }
+
+    /**
+     * Returns the number of events in the snapshot.
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Returns a number that grows with every committed batch that changed the store.
+     */
+    @Override
+    public long getVersion() {
+      return version;
+    }
+  }
+
+  /**
+   * The events of one attendee, sorted by start time, and how many times they have changed.
+   * Schedules are immutable; a batch that changes one makes a new copy.
+   */
+  private static final class Schedule {
+    private static final Event[] NO_EVENTS = new Event[0];
+
+    private final Event[] events;
+    private final List<TimeRange> times;
+    private final long version;
+
+    private Schedule(Event[] events, long version) {
+      this.events = events;
+      this.version = version;
+      this.times = new AbstractList<TimeRange>() {
+        @Override
+        public TimeRange get(int index) {
+          return events[index].getWhen();
+        }
+
+        @Override
+        public int size() {
+          return events.length;
+        }
+      };
+    }
+
+    int indexOf(Event event) {
+      for (int i = 0; i < events.length; i++) {
+        if (events[i].equals(event)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+}
@@ -16,14 +16,68 @@ package com.google.sps;
 
 import java.util.Collection;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Collections;
-import java.util.LinkedList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public final class FindMeetingQuery implements MeetingQueryEngine {
+  // Batches smaller than this are answered on the calling thread because handing them to other
+  // cores costs more than it saves.
+  private static final int MIN_PARALLEL_BATCH_SIZE = 16;
+
+  private final MergeStrategy mergeStrategy;
+
+  // Merged busy times of attendee groups, or null to merge them for every query.
+  private final BusySetCache busySetCache;
+
+  // Where the phases of sampled queries are timed, or null to time nothing.
+  private final QueryStats queryStats;
+
+  /**
+   * Creates a query that merges busy times with {@code MergeStrategy.SORT_THEN_MERGE}.
+   */
+  public FindMeetingQuery() {
+    this(MergeStrategy.SORT_THEN_MERGE);
+  }
+
+  /**
+   * Creates a query that merges busy times with {@code mergeStrategy}.
+   */
+  public FindMeetingQuery(MergeStrategy mergeStrategy) {
+    this(mergeStrategy, null);
+  }
+
+  /**
+   * Creates a query that reads the merged busy times of attendee groups from {@code busySetCache}
+   * when it is asked about the cache's store, and merges them with {@code mergeStrategy} otherwise.
+   */
+  public FindMeetingQuery(MergeStrategy mergeStrategy, BusySetCache busySetCache) {
+    this(mergeStrategy, busySetCache, null);
+  }
+
+  /**
+   * Creates a query like {@code FindMeetingQuery(mergeStrategy, busySetCache)} that also records how
+   * long each phase of {@code query} takes into {@code queryStats}, for the queries it samples.
+   * Either {@code busySetCache} or {@code queryStats} may be null.
+   */
+  public FindMeetingQuery(MergeStrategy mergeStrategy, BusySetCache busySetCache, QueryStats queryStats) {
+    if (mergeStrategy == null) {
+      throw new IllegalArgumentException("mergeStrategy cannot be null");
+    }
+
+    this.mergeStrategy = mergeStrategy;
+    this.busySetCache = busySetCache;
+    this.queryStats = queryStats;
+  }
 
-public final class FindMeetingQuery {
   /**
    * Return time ranges when an event can be scheduled for all mandatory attendees of the meeting request.
    *
@@ -31,95 +85,506 @@ public final class FindMeetingQuery {
    * @param request The specific meeting request that the user is making.
    * @return The list of available event times.
    */
+  @Override
   public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+    return query(new EventIndex(events), request);
+  }
+
+  /**
+   * Return time ranges when an event can be scheduled for all mandatory attendees of the meeting request,
+   * or for a quorum of them if the request has one.
+   * Reusing one index or store across queries avoids rescanning every event in the booking system.
+   *
+   * @param schedules The busy times of every attendee in the booking system.
+   * @param request The specific meeting request that the user is making.
+   * @return The list of available event times.
+   */
+  public Collection<TimeRange> query(ScheduleSource schedules, MeetingRequest request) {
+    QueryStats.Sample sample = queryStats == null ? QueryStats.Sample.UNSAMPLED : queryStats.startSample();
+    Collection<TimeRange> availableTimes = findAvailableTimes(schedules, request, sample);
+    sample.count(QueryStats.Counter.SLOTS_PRODUCED, availableTimes.size());
+    sample.end();
+    return availableTimes;
+  }
+
+  /**
+   * Find the available times for {@code query(schedules, request)}, timing each phase into
+   * {@code sample}. Requests with a limit or a quorum are only timed as a whole.
+   */
+  private Collection<TimeRange> findAvailableTimes(
+      ScheduleSource schedules, MeetingRequest request, QueryStats.Sample sample) {
+    if (request.getLimit() > 0) {
+      // Only the first few options are wanted, so stop looking as soon as they are found.
+      return stream(schedules, request).collect(Collectors.toList());
+    }
+
+    if (request.hasQuorum()) {
+      return QuorumQuery.query(schedules, request);
+    }
 
-    ArrayList<String> mandatoryAttendees = new ArrayList<String>(); 
-    mandatoryAttendees.addAll(request.getAttendees());
-    
     ArrayList<String> mandatoryAndOptionalAttendees = new ArrayList<String>(); 
     mandatoryAndOptionalAttendees.addAll(request.getAttendees());
     mandatoryAndOptionalAttendees.addAll(request.getOptionalAttendees());
 
-    ArrayList<TimeRange> mandatoryAttendeeEventTimes = findEventTimes(events, mandatoryAttendees);
-    ArrayList<TimeRange> mandatoryAndOptionalAttendeeEventTimes = findEventTimes(events, mandatoryAndOptionalAttendees);
-
-    LinkedList<TimeRange> unavailableMandatoryTimes = determineUnavailableTimes(mandatoryAttendeeEventTimes);
-    LinkedList<TimeRange> unavailableMandatoryAndOptionalTimes = determineUnavailableTimes(mandatoryAndOptionalAttendeeEventTimes);
+    List<TimeRange> unavailableMandatoryAndOptionalTimes =
+        findUnavailableTimes(schedules, mandatoryAndOptionalAttendees, sample, true);
 
     long requestDuration = request.getDuration();
 
     ArrayList<TimeRange> mandatoryAndOptionalAvailableTimes =  determineAvailableTimes(unavailableMandatoryAndOptionalTimes, requestDuration);
+    sample.endPhase(QueryStats.Phase.DETERMINE_AVAILABLE_TIMES);
 
     if (mandatoryAndOptionalAvailableTimes.size() > 0) {
         return mandatoryAndOptionalAvailableTimes;
     } else {
-        return determineAvailableTimes(unavailableMandatoryTimes, requestDuration);
+        // Only look at the mandatory attendees on their own once the optional attendees are known not to fit
+        // The mandatory attendees' events were already counted with the optional attendees' ones
+        List<TimeRange> unavailableMandatoryTimes =
+            findUnavailableTimes(schedules, request.getAttendees(), sample, false);
+        ArrayList<TimeRange> mandatoryAvailableTimes = determineAvailableTimes(unavailableMandatoryTimes, requestDuration);
+        sample.endPhase(QueryStats.Phase.DETERMINE_AVAILABLE_TIMES);
+        return mandatoryAvailableTimes;
     }
   }
 
   /**
-   * Find all events that will be attended by attendees of the meeting request.
+   * Return time ranges when an event can be scheduled, reading the events one at a time as they
+   * arrive, such as from a file or from a datastore query that returns pages of results. Only the
+   * busy times of the requested attendees are kept, merged as they arrive, so memory use depends on
+   * how busy those attendees are rather than on the size of the calendar.
+   *
+   * @param events The events in the booking system, read once.
+   * @param request The specific meeting request that the user is making.
+   * @return The list of available event times.
+   */
+  public Collection<TimeRange> query(Iterator<Event> events, MeetingRequest request) {
+    if (request.hasQuorum()) {
+      return Intervals.limit(QuorumQuery.query(accumulateSchedules(events, request), request), request.getLimit());
+    }
+
+    int[] mandatoryAttendees = request.getAttendeeIds();
+    int[] optionalAttendees = request.getOptionalAttendeeIds();
+
+    IntervalAccumulator mandatoryBusy = new IntervalAccumulator();
+    IntervalAccumulator mandatoryAndOptionalBusy = new IntervalAccumulator();
+    while (events.hasNext()) {
+      Event event = events.next();
+      int[] attendees = event.attendeeIds();
+      boolean hasMandatory = AttendeeDictionary.intersects(attendees, mandatoryAttendees);
+      boolean hasOptional = !hasMandatory && AttendeeDictionary.intersects(attendees, optionalAttendees);
+
+      if (hasMandatory || hasOptional) {
+        long range = Intervals.pack(event.getWhen());
+        mandatoryAndOptionalBusy.add(range);
+        if (hasMandatory) {
+          mandatoryBusy.add(range);
+        }
+      }
+    }
+
+    long requestDuration = request.getDuration();
+    List<TimeRange> availableTimes = new ArrayList<>();
+    Intervals.addAvailableTimes(
+        mandatoryAndOptionalBusy.merge(), mandatoryAndOptionalBusy.size(), requestDuration, availableTimes);
+    if (availableTimes.isEmpty()) {
+      // Nothing works for the optional attendees, so only schedule around the mandatory ones.
+      Intervals.addAvailableTimes(mandatoryBusy.merge(), mandatoryBusy.size(), requestDuration, availableTimes);
+    }
+    return Intervals.limit(availableTimes, request.getLimit());
+  }
+
+  /**
+   * Return time ranges when an event can be scheduled, reading the events from a stream as they
+   * arrive. See {@code query(Iterator, MeetingRequest)}.
+   *
+   * @param events The events in the booking system.
+   * @param request The specific meeting request that the user is making.
+   * @return The list of available event times.
+   */
+  public Collection<TimeRange> query(Stream<Event> events, MeetingRequest request) {
+    return query(events.iterator(), request);
+  }
+
+  /**
+   * Return the same time ranges as {@code query}, found lazily. Busy times are merged and gaps are
+   * checked only as the iterator is advanced, and the mandatory attendees alone are only considered
+   * once it is clear that no time suits the optional attendees too. At most
+   * {@code request.getLimit()} ranges are returned if the request has a limit.
+   *
+   * @param schedules The busy times of every attendee in the booking system.
+   * @param request The specific meeting request that the user is making.
+   * @return The available event times, in order.
+   */
+  public Iterator<TimeRange> iterator(ScheduleSource schedules, MeetingRequest request) {
+    Iterator<TimeRange> availableTimes = findAvailableTimesLazily(schedules, request);
+    return request.getLimit() > 0 ? limit(availableTimes, request.getLimit()).iterator() : availableTimes;
+  }
+
+  /**
+   * Return the same time ranges as {@code iterator}, as a sequential stream.
+   *
+   * @param schedules The busy times of every attendee in the booking system.
+   * @param request The specific meeting request that the user is making.
+   * @return The available event times, in order.
+   */
+  public Stream<TimeRange> stream(ScheduleSource schedules, MeetingRequest request) {
+    return limit(findAvailableTimesLazily(schedules, request), request.getLimit());
+  }
+
+  /**
+   * Return time ranges when every mandatory attendee is free and as many optional attendees as
+   * possible can join. Unlike {@code query}, optional attendees are not all-or-nothing: if nobody can
+   * fit everyone, the times that suit the most optional attendees are still preferred.
    *
    * @param events The complete collection of events in the booking system.
-   * @param requestedAttendees The attendees (optional or mandatory) that we want to find event times for.
-   * @return The list of all event times attended by the required attendees.
+   * @param request The specific meeting request that the user is making.
+   * @return The list of available event times.
    */
-   private ArrayList<TimeRange> findEventTimes(Collection<Event> events, ArrayList<String> requestedAttendees) {
-       ArrayList<TimeRange> times = new ArrayList<TimeRange>();
-        for (Event event : events) {
-            HashSet<String> commonAttendees = new HashSet<String>();
+  public Collection<TimeRange> queryMaximizingOptionalAttendees(Collection<Event> events, MeetingRequest request) {
+    return queryMaximizingOptionalAttendees(new EventIndex(events), request);
+  }
 
-            // Add the event attendees first because there tends to be fewer of them
-            commonAttendees.addAll(event.getAttendees()); 
-            // Ensure to only find availability of the requested attendees
-            commonAttendees.retainAll(requestedAttendees); 
+  /**
+   * Return time ranges when every mandatory attendee is free and as many optional attendees as
+   * possible can join, found with a single sweep over the attendees' busy times.
+   *
+   * @param schedules The busy times of every attendee in the booking system.
+   * @param request The specific meeting request that the user is making.
+   * @return The list of available event times.
+   */
+  public Collection<TimeRange> queryMaximizingOptionalAttendees(ScheduleSource schedules, MeetingRequest request) {
+    return OptionalAttendeeSweep.query(schedules, request);
+  }
 
-            if (commonAttendees.size() > 0) { 
-                times.add(event.getWhen());
-            }
+  /**
+   * Return time ranges when every attendee of the meeting request is free and a room with enough
+   * seats is free too, each paired with that room. See {@code queryWithRoom(ScheduleSource, RoomIndex,
+   * MeetingRequest)}.
+   *
+   * @param events The complete collection of events in the booking system.
+   * @param rooms The rooms that can be booked.
+   * @param request The specific meeting request that the user is making.
+   * @return The available event times and their rooms.
+   */
+  public List<RoomSlot> queryWithRoom(Collection<Event> events, RoomIndex rooms, MeetingRequest request) {
+    return queryWithRoom(new EventIndex(events), rooms, request);
+  }
+
+  /**
+   * Return time ranges when every attendee of the meeting request is free and a room with at least
+   * {@code request.getMinCapacity()} seats is free too, each paired with that room. The optional
+   * attendees are only dropped if no time suits them and a room. Within each free time, the room
+   * that is free soonest for the meeting is picked, and the smallest if several are.
+   *
+   * @param schedules The busy times of every attendee in the booking system.
+   * @param rooms The rooms that can be booked.
+   * @param request The specific meeting request that the user is making. Quorums are not supported.
+   * @return The available event times and their rooms, in order. At most {@code request.getLimit()}
+   *     slots are returned if the request has a limit.
+   */
+  public List<RoomSlot> queryWithRoom(ScheduleSource schedules, RoomIndex rooms, MeetingRequest request) {
+    if (request.hasQuorum()) {
+      throw new IllegalArgumentException("quorum requests cannot be matched with rooms");
+    }
+
+    ArrayList<String> mandatoryAndOptionalAttendees = new ArrayList<String>();
+    mandatoryAndOptionalAttendees.addAll(request.getAttendees());
+    mandatoryAndOptionalAttendees.addAll(request.getOptionalAttendees());
+
+    List<RoomSlot> slots = findRoomSlots(schedules, rooms, mandatoryAndOptionalAttendees, request);
+    if (slots.isEmpty() && !request.getOptionalAttendees().isEmpty()) {
+      // No room suits the optional attendees too, so only schedule around the mandatory ones.
+      slots = findRoomSlots(schedules, rooms, request.getAttendees(), request);
+    }
+
+    int limit = request.getLimit();
+    return limit > 0 && slots.size() > limit ? new ArrayList<>(slots.subList(0, limit)) : slots;
+  }
+
+  /**
+   * Return the times within {@code window} when an event can be scheduled for all mandatory attendees
+   * of the meeting request, including the optional attendees too when that leaves at least one option.
+   * The window may span many days. Times are found one day at a time as the iterator is advanced, and
+   * free time that runs past midnight is returned as a single range.
+   *
+   * @param calendar The events of every attendee over many days. Occurrences of recurring events are
+   *     only worked out for the days in the window.
+   * @param request The specific meeting request that the user is making. Quorums are not supported.
+   * @param window The span of time to search, such as the next 14 days.
+   * @return The available event times, in order. At most {@code request.getLimit()} times are returned
+   *     if the request has a limit.
+   */
+  public Iterator<EpochRange> queryHorizon(HorizonCalendar calendar, MeetingRequest request, EpochRange window) {
+    if (request.hasQuorum()) {
+      throw new IllegalArgumentException("quorum requests can only be made for a single day");
+    }
+
+    ArrayList<String> mandatoryAndOptionalAttendees = new ArrayList<String>();
+    mandatoryAndOptionalAttendees.addAll(request.getAttendees());
+    mandatoryAndOptionalAttendees.addAll(request.getOptionalAttendees());
+
+    long requestDuration = request.getDuration();
+
+    // Only fall back to the mandatory attendees when no time in the whole window suits everyone.
+    // Finding the first option is enough to know, so the rest of the window is still scanned lazily.
+    Iterator<EpochRange> availableTimes =
+        new HorizonSlotIterator(calendar, mandatoryAndOptionalAttendees, window, requestDuration);
+    if (!availableTimes.hasNext() && !request.getOptionalAttendees().isEmpty()) {
+        availableTimes = new HorizonSlotIterator(calendar, request.getAttendees(), window, requestDuration);
+    }
+    return request.getLimit() > 0 ? limit(availableTimes, request.getLimit()).iterator() : availableTimes;
+  }
+
+  /**
+   * Return the available time ranges for many meeting requests against the same events. The events
+   * are indexed once and shared by every request, and large batches are answered in parallel.
+   *
+   * @param events The complete collection of events in the booking system.
+   * @param requests The meeting requests to answer.
+   * @return The list of available event times for each request, in the same order as the requests.
+   */
+  public List<Collection<TimeRange>> queryBatch(Collection<Event> events, List<MeetingRequest> requests) {
+    return queryBatch(new EventIndex(events), requests);
+  }
+
+  /**
+   * Return the available time ranges for many meeting requests against the same schedules. Large
+   * batches are answered in parallel if {@code schedules} is read-only: an {@code EventIndex}, a
+   * {@code CalendarSnapshot} or an {@code EventStore.Snapshot}. Other sources, such as a
+   * {@code CalendarStore}, may change or fill in caches as they are read, so their batches are
+   * answered on the calling thread.
+   *
+   * @param schedules The busy times of every attendee in the booking system.
+   * @param requests The meeting requests to answer.
+   * @return The list of available event times for each request, in the same order as the requests.
+   */
+  public List<Collection<TimeRange>> queryBatch(ScheduleSource schedules, List<MeetingRequest> requests) {
+    // The query itself keeps no state between calls, so requests can be answered concurrently as
+    // long as the source is safe to read from several threads. Collecting a parallel stream still
+    // keeps the answers in the order of the requests.
+    boolean parallel = requests.size() >= MIN_PARALLEL_BATCH_SIZE && isReadOnly(schedules);
+    return (parallel ? requests.parallelStream() : requests.stream())
+        .map(request -> query(schedules, request))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Checks if {@code schedules} never changes and can be read from several threads at once.
+   */
+  private static boolean isReadOnly(ScheduleSource schedules) {
+    return schedules instanceof EventIndex
+        || schedules instanceof CalendarSnapshot
+        || schedules instanceof EventStore.Snapshot;
+  }
+
+  /**
+   * Book the earliest time that suits the meeting request, as one atomic step. The time is chosen
+   * with the same rules as {@code query}, and the optional attendees are only invited if that time
+   * suits them too. If another writer books any of the requested attendees between choosing the
+   * time and booking it, the time is chosen again from the newer snapshot. Bookings for other
+   * attendees do not cause a retry, so writers for different people never wait for each other.
+   *
+   * @param store The events in the booking system.
+   * @param request The specific meeting request that the user is making. Quorums are not supported,
+   *     since the attendees who are free may change partway through a quorum's time range.
+   * @param title The title of the event to book.
+   * @return The booked event, or nothing if no time suits the request.
+   */
+  public Optional<Event> reserve(EventStore store, MeetingRequest request, String title) {
+    if (request.hasQuorum()) {
+      throw new IllegalArgumentException("quorum requests cannot be reserved");
+    }
+
+    ArrayList<String> mandatoryAndOptionalAttendees = new ArrayList<String>();
+    mandatoryAndOptionalAttendees.addAll(request.getAttendees());
+    mandatoryAndOptionalAttendees.addAll(request.getOptionalAttendees());
+
+    while (true) {
+      EventStore.Snapshot snapshot = store.snapshot();
+      Event event = findEarliestEvent(snapshot, request, mandatoryAndOptionalAttendees, title);
+      if (event == null) {
+        return Optional.empty();
+      }
+
+      EventStore.Batch batch = store.batch().add(event);
+      for (String attendee : mandatoryAndOptionalAttendees) {
+        batch.expectVersion(attendee, snapshot.getVersion(attendee));
+      }
+      if (batch.commit() != null) {
+        return Optional.of(event);
+      }
+      // One of the attendees was booked in the meantime, so the chosen time may no longer suit.
+    }
+  }
+
+  /**
+   * Find the earliest time that suits the request and make it into an event, or return null if no
+   * time suits.
+   */
+  private Event findEarliestEvent(
+      ScheduleSource schedules, MeetingRequest request, List<String> mandatoryAndOptionalAttendees, String title) {
+    long requestDuration = request.getDuration();
+
+    Collection<String> attendees = mandatoryAndOptionalAttendees;
+    Iterator<TimeRange> availableTimes = findSlots(schedules, attendees, requestDuration);
+    if (!availableTimes.hasNext() && !request.getOptionalAttendees().isEmpty()) {
+      attendees = request.getAttendees();
+      availableTimes = findSlots(schedules, attendees, requestDuration);
+    }
+
+    if (!availableTimes.hasNext()) {
+      return null;
+    }
+
+    // Available times are at least as long as the meeting, so the meeting fits within the day.
+    TimeRange when = TimeRange.fromStartDuration(availableTimes.next().start(), (int) requestDuration);
+    return new Event(title, when, attendees);
+  }
+
+  /**
+   * Find the times when {@code requestedAttendees} and a big enough room are free.
+   */
+  private List<RoomSlot> findRoomSlots(
+      ScheduleSource schedules, RoomIndex rooms, Collection<String> requestedAttendees, MeetingRequest request) {
+    List<TimeRange> unavailableTimes =
+        findUnavailableTimes(schedules, requestedAttendees, QueryStats.Sample.UNSAMPLED, false);
+    List<TimeRange> availableTimes = determineAvailableTimes(unavailableTimes, request.getDuration());
+    return rooms.findSlots(availableTimes, request.getDuration(), request.getMinCapacity());
+  }
+
+  /**
+   * Lazily find the available times for a request, ignoring its limit.
+   */
+  private Iterator<TimeRange> findAvailableTimesLazily(ScheduleSource schedules, MeetingRequest request) {
+    if (request.hasQuorum()) {
+      return QuorumQuery.query(schedules, request).iterator();
+    }
+
+    long requestDuration = request.getDuration();
+
+    ArrayList<String> mandatoryAndOptionalAttendees = new ArrayList<String>();
+    mandatoryAndOptionalAttendees.addAll(request.getAttendees());
+    mandatoryAndOptionalAttendees.addAll(request.getOptionalAttendees());
+
+    Iterator<TimeRange> availableTimes = findSlots(schedules, mandatoryAndOptionalAttendees, requestDuration);
+    if (availableTimes.hasNext() || request.getOptionalAttendees().isEmpty()) {
+      return availableTimes;
+    }
+
+    return findSlots(schedules, request.getAttendees(), requestDuration);
+  }
+
+  /**
+   * Lazily find the times when {@code requestedAttendees} are free. Unless the busy-set cache
+   * already holds their merged times, each attendee's sorted times are merged only as far as the
+   * returned iterator is read.
+   */
+  private Iterator<TimeRange> findSlots(
+      ScheduleSource schedules, Collection<String> requestedAttendees, long requestDuration) {
+    if (busySetCache == null || !busySetCache.isFor(schedules)) {
+      return new SlotIterator(findEventTimes(schedules, requestedAttendees), requestDuration);
+    }
+
+    List<TimeRange> unavailableTimes = busySetCache.getBusyTimes(requestedAttendees);
+    long[] packed = new long[unavailableTimes.size()];
+    for (int i = 0; i < packed.length; i++) {
+      packed[i] = Intervals.pack(unavailableTimes.get(i));
+    }
+    return new SlotIterator(packed, packed.length, requestDuration);
+  }
+
+  /**
+   * Read {@code events} once, keeping the merged busy times of each required attendee.
+   */
+  private static ScheduleSource accumulateSchedules(Iterator<Event> events, MeetingRequest request) {
+    int[] attendees = request.getAttendeeIds();
+    IntervalAccumulator[] busy = new IntervalAccumulator[attendees.length];
+    for (int i = 0; i < attendees.length; i++) {
+      busy[i] = new IntervalAccumulator();
+    }
+
+    while (events.hasNext()) {
+      Event event = events.next();
+      for (int attendee : event.attendeeIds()) {
+        int index = Arrays.binarySearch(attendees, attendee);
+        if (index >= 0) {
+          busy[index].add(Intervals.pack(event.getWhen()));
+        }
+      }
+    }
+
+    return attendee -> {
+      int index = Arrays.binarySearch(attendees, AttendeeDictionary.getDefault().lookup(attendee));
+      return index >= 0 ? busy[index].times() : Collections.<TimeRange>emptyList();
+    };
+  }
+
+  /**
+   * Determine the unavailable times of {@code requestedAttendees}, from the busy-set cache if it
+   * holds times from {@code schedules}, timing each phase into {@code sample}. The events read and
+   * the blocks merged are only counted if {@code countWork} is set.
+   */
+  private List<TimeRange> findUnavailableTimes(
+      ScheduleSource schedules, Collection<String> requestedAttendees, QueryStats.Sample sample,
+      boolean countWork) {
+    boolean counted = countWork && sample.isSampled();
+    List<TimeRange> unavailableTimes;
+    if (busySetCache != null && busySetCache.isFor(schedules)) {
+      unavailableTimes = busySetCache.getBusyTimes(requestedAttendees);
+    } else {
+      List<List<TimeRange>> eventTimes = findEventTimes(schedules, requestedAttendees);
+      sample.endPhase(QueryStats.Phase.FIND_EVENT_TIMES);
+      if (counted) {
+        for (List<TimeRange> times : eventTimes) {
+          sample.count(QueryStats.Counter.EVENTS_SCANNED, times.size());
+        }
+      }
+      unavailableTimes = determineUnavailableTimes(eventTimes);
+    }
+
+    sample.endPhase(QueryStats.Phase.DETERMINE_UNAVAILABLE_TIMES);
+    if (counted) {
+      sample.count(QueryStats.Counter.INTERVALS_MERGED, unavailableTimes.size());
+    }
+    return unavailableTimes;
+  }
+
+  /**
+   * Wrap {@code iterator} in a sequential stream of at most {@code limit} elements, or of every
+   * element if {@code limit} is zero.
+   */
+  private static <T> Stream<T> limit(Iterator<T> iterator, int limit) {
+    Stream<T> stream = StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    return limit > 0 ? stream.limit(limit) : stream;
+  }
+
+  /**
+   * Find all events that will be attended by attendees of the meeting request.
+   *
+   * @param schedules The busy times of every attendee in the booking system.
+   * @param requestedAttendees The attendees (optional or mandatory) that we want to find event times for.
+   * @return The event times of each required attendee, each sorted by start time.
+   */
+   private List<List<TimeRange>> findEventTimes(ScheduleSource schedules, Collection<String> requestedAttendees) {
+       List<List<TimeRange>> times = new ArrayList<List<TimeRange>>(requestedAttendees.size());
+        // Only the requested attendees' own events are visited. An event shared by several requested
+        // attendees is found once per attendee, which the merge step absorbs.
+        for (String attendee : requestedAttendees) {
+            times.add(schedules.getTimes(attendee));
         }
 
         return times;
    }
 
   /**
-   * Determine the overlap among all event times, using an O(nlogn) sorting algorithm and an O(n) linear pass to merge the TimeRanges.
+   * Determine the overlap among all event times using the configured merge strategy.
    *
-   * @param eventTimes The list of all event times attended by the required attendees.
+   * @param attendeeEventTimes The event times of each required attendee, each sorted by start time.
    * @return The list of attendee event time overlaps.
    */
-   private LinkedList<TimeRange> determineUnavailableTimes(ArrayList<TimeRange> eventTimes) {
-
-       // Sort the times to reduce time complexity by allowing us to identify overlap quicker
-       eventTimes.sort(TimeRange.ORDER_BY_START);
-
-       LinkedList<TimeRange> mergedEventTimes = new LinkedList<>();
-       for (TimeRange tr : eventTimes) {
-           // Append current TimeRange if there's no overlap with the last TimeRange or no TimeRanges have been merged yet
-           if (mergedEventTimes.isEmpty() || !mergedEventTimes.getLast().overlaps(tr)) {
-               mergedEventTimes.add(tr);
-           }
-
-           // Merge current and previous TimeRange if overlap exists by updating the last TimeRange 
-           else {
-               TimeRange lastTime = mergedEventTimes.getLast();
-
-               // Identify the latest end of the merged Time Range
-               int mergedEnd; 
-               if (Long.compare(lastTime.end(), tr.end()) > 0) {
-                   mergedEnd = lastTime.end();
-               }
-               else {
-                   mergedEnd = tr.end();
-               }
-
-               mergedEventTimes.removeLast();
-               mergedEventTimes.addLast(TimeRange.fromStartEnd(lastTime.start(),
-               mergedEnd, false));
-           }
-        }
-
-        return mergedEventTimes;
+   private List<TimeRange> determineUnavailableTimes(List<List<TimeRange>> attendeeEventTimes) {
+       return mergeStrategy.merge(attendeeEventTimes);
    }
 
   /**
@@ -129,7 +594,7 @@ public final class FindMeetingQuery {
    * @param requestDuration The duration of the requested meeting: all meeting times must be longer than this
    * @return The complete list of available times for the requested meeting to occur.  
    */
-    private ArrayList<TimeRange> determineAvailableTimes(LinkedList<TimeRange> unavailableTimes, long requestDuration) {
+    private ArrayList<TimeRange> determineAvailableTimes(List<TimeRange> unavailableTimes, long requestDuration) {
 
         ArrayList<TimeRange> availableTimes = new ArrayList<TimeRange>();
 
@@ -141,9 +606,10 @@ public final class FindMeetingQuery {
 
         } else {
             // If the first event does not start at the beginning of the day, create availability until the first event if there is enough time
-            if (unavailableTimes.getFirst().start() != TimeRange.START_OF_DAY) {
-                if (unavailableTimes.getFirst().start() - TimeRange.START_OF_DAY >= requestDuration) {
-                    availableTimes.add(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, unavailableTimes.getFirst().start(),
+            TimeRange firstTime = unavailableTimes.get(0);
+            if (firstTime.start() != TimeRange.START_OF_DAY) {
+                if (firstTime.start() - TimeRange.START_OF_DAY >= requestDuration) {
+                    availableTimes.add(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, firstTime.start(),
                     false));
                 }
             }
@@ -165,9 +631,10 @@ public final class FindMeetingQuery {
             }    
 
             // If the last event does not end at the end of the day, create availability after the last event if there is enough time
-            if (unavailableTimes.getLast().end() - 1 != TimeRange.END_OF_DAY) {
-                if (TimeRange.END_OF_DAY - unavailableTimes.getLast().end() >= requestDuration) {
-                    availableTimes.add(TimeRange.fromStartEnd(unavailableTimes.getLast().end(), 
+            TimeRange lastTime = unavailableTimes.get(unavailableTimes.size() - 1);
+            if (lastTime.end() - 1 != TimeRange.END_OF_DAY) {
+                if (TimeRange.END_OF_DAY - lastTime.end() >= requestDuration) {
+                    availableTimes.add(TimeRange.fromStartEnd(lastTime.end(), 
                     TimeRange.END_OF_DAY, true));
                 }
             }
@@ -0,0 +1,108 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A calendar of events over many days. Every attendee's event times are filed under each day they
+ * touch, so a query over a long window can visit one day at a time and only look at the requested
+ * attendees' events for that day. Recurring events are filed once under each attendee, and their
+ * occurrences are only worked out for the days a query visits. Calendars are not thread-safe.
+ */
+public final class HorizonCalendar {
+  private final Map<String, Map<Long, List<EpochRange>>> timesByAttendee = new HashMap<>();
+  private final Map<String, List<RecurringEvent>> recurringEventsByAttendee = new HashMap<>();
+
+  /**
+   * Creates an empty calendar.
+   */
+  public HorizonCalendar() {}
+
+  /**
+   * Creates a calendar holding {@code events}.
+   *
+   * @param events The events to add. Must be non-null.
+   */
+  public HorizonCalendar(Collection<HorizonEvent> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty collection instead.");
+    }
+
+    for (HorizonEvent event : events) {
+      addEvent(event);
+    }
+  }
+
+  /**
+   * Adds an event, making its attendees busy for the event's time.
+   */
+  public void addEvent(HorizonEvent event) {
+    EpochRange when = event.getWhen();
+    if (when.duration() <= 0) {
+      // An event without any duration never makes anyone busy.
+      return;
+    }
+
+    long firstDay = EpochRange.dayOf(when.start());
+    long lastDay = EpochRange.dayOf(when.end() - 1);
+    for (String attendee : event.getAttendees()) {
+      Map<Long, List<EpochRange>> days =
+          timesByAttendee.computeIfAbsent(attendee, key -> new HashMap<>());
+      for (long day = firstDay; day <= lastDay; day++) {
+        days.computeIfAbsent(day, key -> new ArrayList<>()).add(when);
+      }
+    }
+  }
+
+  /**
+   * Adds a recurring event, making its attendees busy for every occurrence. Nothing is stored for
+   * each occurrence, so events that recur forever take no more room than any other.
+   */
+  public void addRecurringEvent(RecurringEvent event) {
+    if (event.getFirst().duration() <= 0) {
+      // An event without any duration never makes anyone busy.
+      return;
+    }
+
+    for (String attendee : event.getAttendees()) {
+      recurringEventsByAttendee.computeIfAbsent(attendee, key -> new ArrayList<>()).add(event);
+    }
+  }
+
+  /**
+   * Returns the times of every event that {@code attendee} is at during {@code day}, in no
+   * particular order. Events that run past midnight are returned whole for each day they touch.
+   */
+  List<EpochRange> getTimes(String attendee, long day) {
+    Map<Long, List<EpochRange>> days = timesByAttendee.get(attendee);
+    if (days == null) {
+      return Collections.emptyList();
+    }
+    return days.getOrDefault(day, Collections.emptyList());
+  }
+
+  /**
+   * Returns every recurring event that {@code attendee} is at, in no particular order.
+   */
+  List<RecurringEvent> getRecurringEvents(String attendee) {
+    return recurringEventsByAttendee.getOrDefault(attendee, Collections.emptyList());
+  }
+}
@@ -0,0 +1,147 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams the free times of a group of attendees over a window, one day at a time. Only the busy
+ * times of the day being scanned are held in memory, and free time that runs past midnight is
+ * returned as one range.
+ */
+final class HorizonSlotIterator implements Iterator<EpochRange> {
+  private final HorizonCalendar calendar;
+  private final Collection<String> attendees;
+  private final EpochRange window;
+  private final long duration;
+  private final long lastDay;
+
+  // The next day to load, and the first minute of the day that is loaded.
+  private long day;
+  private long dayStart;
+
+  // The loaded day's merged busy times, packed by {@code Intervals} relative to {@code dayStart}.
+  private long[] busy = new long[16];
+  private int busyCount;
+  private int busyIndex;
+
+  // Where the free time being scanned started.
+  private long freeStart;
+
+  // The next range to return, found ahead of time by {@code hasNext}.
+  private EpochRange next;
+  private boolean finished;
+
+  HorizonSlotIterator(
+      HorizonCalendar calendar, Collection<String> attendees, EpochRange window, long duration) {
+    this.calendar = calendar;
+    this.attendees = attendees;
+    this.window = window;
+    this.duration = duration;
+    this.day = EpochRange.dayOf(window.start());
+    this.lastDay = window.duration() == 0 ? day - 1 : EpochRange.dayOf(window.end() - 1);
+    this.freeStart = window.start();
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null && !finished) {
+      next = findNext();
+    }
+    return next != null;
+  }
+
+  @Override
+  public EpochRange next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    EpochRange result = next;
+    next = null;
+    return result;
+  }
+
+  private EpochRange findNext() {
+    while (true) {
+      while (busyIndex < busyCount) {
+        long range = busy[busyIndex++];
+        long start = dayStart + Intervals.start(range);
+        long end = dayStart + Intervals.end(range);
+
+        EpochRange candidate = null;
+        if (start > freeStart && start - freeStart >= duration) {
+          candidate = EpochRange.fromStartEnd(freeStart, start);
+        }
+        freeStart = Math.max(freeStart, end);
+        if (candidate != null) {
+          return candidate;
+        }
+      }
+
+      if (day > lastDay) {
+        finished = true;
+        if (window.end() > freeStart && window.end() - freeStart >= duration) {
+          return EpochRange.fromStartEnd(freeStart, window.end());
+        }
+        return null;
+      }
+      loadDay(day++);
+    }
+  }
+
+  private void loadDay(long day) {
+    dayStart = EpochRange.startOfDay(day);
+    long from = Math.max(dayStart, window.start());
+    long to = Math.min(dayStart + EpochRange.MINUTES_PER_DAY, window.end());
+
+    busyCount = 0;
+    busyIndex = 0;
+    for (String attendee : attendees) {
+      for (EpochRange time : calendar.getTimes(attendee, day)) {
+        addBusyTime(time.start(), time.end(), from, to);
+      }
+
+      // Work out only the occurrences that can touch this day, straight into the busy times.
+      for (RecurringEvent event : calendar.getRecurringEvents(attendee)) {
+        long duration = event.getFirst().duration();
+        for (long startDay = day - event.getOverhangDays(); startDay <= day; startDay++) {
+          if (event.occursOn(startDay)) {
+            long start = event.startOn(startDay);
+            addBusyTime(start, start + duration, from, to);
+          }
+        }
+      }
+    }
+    busyCount = Intervals.sortAndMerge(busy, busyCount);
+  }
+
+  /**
+   * Adds the part of the busy time from {@code start} to {@code end} that falls between
+   * {@code from} and {@code to}, the part of the loaded day inside the window.
+   */
+  private void addBusyTime(long start, long end, long from, long to) {
+    start = Math.max(start, from);
+    end = Math.min(end, to);
+    if (start < end) {
+      if (busyCount == busy.length) {
+        busy = Arrays.copyOf(busy, busy.length * 2);
+      }
+      busy[busyCount++] = Intervals.pack((int) (start - dayStart), (int) (end - dayStart));
+    }
+  }
+}
@@ -0,0 +1,91 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Collects busy ranges as they arrive and keeps them merged in a bounded buffer. Whenever the
+ * buffer fills up, the ranges in it are sorted and merged in place, and only grows if merging did
+ * not free up enough room. Merged ranges within a day never overlap, so the buffer stays small no
+ * matter how many ranges are added.
+ */
+final class IntervalAccumulator {
+  private static final int INITIAL_CAPACITY = 64;
+
+  private long[] ranges = new long[INITIAL_CAPACITY];
+  private int count;
+
+  /**
+   * Adds a range packed by {@code Intervals}.
+   */
+  void add(long range) {
+    if (count == ranges.length) {
+      compact();
+      // Grow if merging freed less than half the buffer, so that compacting stays cheap overall.
+      if (count > ranges.length / 2) {
+        ranges = Arrays.copyOf(ranges, 2 * ranges.length);
+      }
+    }
+    ranges[count++] = range;
+  }
+
+  /**
+   * Merges every range added so far.
+   *
+   * @return The merged ranges, packed by {@code Intervals}, in a buffer whose first {@code size()}
+   *     entries are sorted by start.
+   */
+  long[] merge() {
+    compact();
+    return ranges;
+  }
+
+  /**
+   * Returns the number of ranges in the buffer, which are merged right after {@code merge}.
+   */
+  int size() {
+    return count;
+  }
+
+  /**
+   * Returns the merged ranges as time ranges, sorted by start.
+   */
+  List<TimeRange> times() {
+    compact();
+    List<TimeRange> times = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      times.add(TimeRange.fromStartEnd(Intervals.start(ranges[i]), Intervals.end(ranges[i]), false));
+    }
+    return times;
+  }
+
+  private void compact() {
+    int merged = Intervals.sortAndMerge(ranges, count);
+
+    // Ranges without any duration are never merged with each other, so drop repeats of the same
+    // one. They split the free time in the same place however many there are.
+    int distinct = 0;
+    for (int i = 0; i < merged; i++) {
+      if (distinct == 0 || ranges[distinct - 1] != ranges[i]) {
+        ranges[distinct++] = ranges[i];
+      }
+    }
+    count = distinct;
+  }
+}
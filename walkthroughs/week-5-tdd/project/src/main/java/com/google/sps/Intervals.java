@@ -0,0 +1,148 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Helpers for working with time ranges packed into primitive {@code long}s. The start is stored in
+ * the high 32 bits and the exclusive end in the low 32 bits, so sorting packed ranges with
+ * {@code Arrays.sort} orders them by start and then by end without creating any objects.
+ */
+final class Intervals {
+  private Intervals() {}
+
+  /**
+   * Packs the range {@code [start, end)} into a single {@code long}.
+   */
+  static long pack(int start, int end) {
+    return ((long) start << 32) | (end & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Packs a {@code TimeRange} into a single {@code long}.
+   */
+  static long pack(TimeRange range) {
+    return pack(range.start(), range.end());
+  }
+
+  /**
+   * Returns the inclusive start of a packed range.
+   */
+  static int start(long range) {
+    return (int) (range >>> 32);
+  }
+
+  /**
+   * Returns the exclusive end of a packed range.
+   */
+  static int end(long range) {
+    return (int) range;
+  }
+
+  /**
+   * Sorts the first {@code count} packed ranges and merges them in place.
+   *
+   * @return The number of merged ranges, which are stored at the front of {@code ranges}.
+   */
+  static int sortAndMerge(long[] ranges, int count) {
+    Arrays.sort(ranges, 0, count);
+    return mergeSorted(ranges, count);
+  }
+
+  /**
+   * Merges the first {@code count} packed ranges in place. The ranges must already be sorted by
+   * start. Ranges are merged using the same rule as {@code TimeRange.overlaps}, so ranges that only
+   * touch are kept apart.
+   *
+   * @return The number of merged ranges, which are stored at the front of {@code ranges}.
+   */
+  static int mergeSorted(long[] ranges, int count) {
+    int merged = 0;
+    for (int i = 0; i < count; i++) {
+      long range = ranges[i];
+      if (merged > 0 && overlaps(ranges[merged - 1], range)) {
+        long last = ranges[merged - 1];
+        ranges[merged - 1] = pack(start(last), Math.max(end(last), end(range)));
+      } else {
+        ranges[merged++] = range;
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * Checks if two packed ranges overlap, matching {@code TimeRange.overlaps}.
+   */
+  static boolean overlaps(long a, long b) {
+    return contains(a, start(b)) || contains(b, start(a));
+  }
+
+  private static boolean contains(long range, int point) {
+    // Like {@code TimeRange}, a range without any duration contains nothing.
+    return start(range) <= point && point < end(range);
+  }
+
+  /**
+   * Adds the free time around merged busy ranges to {@code availableTimes}, using the same rules as
+   * {@code FindMeetingQuery}: a whole day when nobody is busy, and otherwise every gap before,
+   * between and after the busy ranges that is long enough for the meeting.
+   *
+   * @param busy Merged busy ranges, sorted by start.
+   * @param count The number of busy ranges at the front of {@code busy}.
+   * @param duration The duration of the requested meeting in minutes.
+   * @param availableTimes Where to add the available times, in order.
+   */
+  static void addAvailableTimes(
+      long[] busy, int count, long duration, Collection<TimeRange> availableTimes) {
+    if (count == 0) {
+      if (duration <= TimeRange.WHOLE_DAY.duration()) {
+        availableTimes.add(TimeRange.WHOLE_DAY);
+      }
+      return;
+    }
+
+    int firstStart = start(busy[0]);
+    if (firstStart != TimeRange.START_OF_DAY && firstStart - TimeRange.START_OF_DAY >= duration) {
+      availableTimes.add(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, firstStart, false));
+    }
+
+    for (int i = 1; i < count; i++) {
+      int gapStart = end(busy[i - 1]);
+      int gapEnd = start(busy[i]);
+      if (gapEnd - gapStart >= duration) {
+        availableTimes.add(TimeRange.fromStartEnd(gapStart, gapEnd, false));
+      }
+    }
+
+    int lastEnd = end(busy[count - 1]);
+    if (lastEnd - 1 != TimeRange.END_OF_DAY && TimeRange.END_OF_DAY - lastEnd >= duration) {
+      availableTimes.add(TimeRange.fromStartEnd(lastEnd, TimeRange.END_OF_DAY, true));
+    }
+  }
+
+  /**
+   * Returns the first {@code limit} available times, or all of them if {@code limit} is zero.
+   */
+  static List<TimeRange> limit(List<TimeRange> availableTimes, int limit) {
+    if (limit > 0 && availableTimes.size() > limit) {
+      return new ArrayList<>(availableTimes.subList(0, limit));
+    }
+    return availableTimes;
+  }
+}
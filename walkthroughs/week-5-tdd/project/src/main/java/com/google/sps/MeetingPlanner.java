@@ -0,0 +1,254 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Places many meetings at once, such as the interviews of an interview loop, and books them all
+ * in one batch. Each attendee's busy minutes are kept in a {@code MinuteMask} that is updated as
+ * meetings are placed, so later meetings see the earlier ones without asking the store again.
+ * Meetings are placed most constrained first: at every step, the meeting with the fewest possible
+ * start times left goes next. It takes the free time that fits it most tightly, which leaves the
+ * longer free times for the meetings still to come. Each meeting follows the rules of
+ * {@code FindMeetingQuery.query}: optional attendees are invited only if some time suits them too.
+ * Planners hold no state, so one instance can be shared by every thread.
+ */
+public final class MeetingPlanner {
+  /**
+   * Place every meeting that fits and book them together. If another writer books any of the
+   * attendees while the plan is being made, the plan is made again from the newer snapshot, so the
+   * booked meetings never overlap anyone's events.
+   *
+   * @param store The events in the booking system.
+   * @param requests The meetings to place. Quorums are not supported.
+   * @param titles The title of the event to book for each request, in the same order.
+   * @return The booked events and the requests that could not be placed.
+   */
+  public Plan schedule(EventStore store, List<MeetingRequest> requests, List<String> titles) {
+    if (requests.size() != titles.size()) {
+      throw new IllegalArgumentException("every request needs exactly one title");
+    }
+    for (MeetingRequest request : requests) {
+      if (request.hasQuorum()) {
+        throw new IllegalArgumentException("quorum requests cannot be planned");
+      }
+    }
+
+    Set<String> people = new LinkedHashSet<>();
+    for (MeetingRequest request : requests) {
+      people.addAll(request.getAttendees());
+      people.addAll(request.getOptionalAttendees());
+    }
+
+    while (true) {
+      EventStore.Snapshot snapshot = store.snapshot();
+      Plan plan = plan(snapshot, people, requests, titles);
+
+      EventStore.Batch batch = store.batch();
+      for (Event event : plan.events) {
+        batch.add(event);
+      }
+      for (String person : people) {
+        batch.expectVersion(person, snapshot.getVersion(person));
+      }
+      if (batch.commit() != null) {
+        return plan;
+      }
+      // One of the attendees was booked in the meantime, so the plan may no longer fit.
+    }
+  }
+
+  /**
+   * Make a plan from {@code snapshot} without booking it.
+   */
+  private static Plan plan(
+      EventStore.Snapshot snapshot, Set<String> people, List<MeetingRequest> requests, List<String> titles) {
+    Map<String, MinuteMask> busy = new HashMap<>();
+    for (String person : people) {
+      MinuteMask mask = new MinuteMask();
+      for (TimeRange time : snapshot.getTimes(person)) {
+        mask.add(time);
+      }
+      busy.put(person, mask);
+    }
+
+    Event[] placed = new Event[requests.size()];
+    List<Integer> remaining = new ArrayList<>();
+    for (int i = 0; i < requests.size(); i++) {
+      remaining.add(i);
+    }
+
+    while (!remaining.isEmpty()) {
+      // Find the meeting with the fewest ways left to place it, taking the earliest request on a
+      // tie. Meetings that no longer fit at all are given up on straight away.
+      int best = -1;
+      Candidate bestCandidate = null;
+      List<Integer> stillFit = new ArrayList<>();
+      for (int index : remaining) {
+        Candidate candidate = Candidate.of(requests.get(index), busy);
+        if (candidate == null) {
+          continue;
+        }
+        stillFit.add(index);
+        if (bestCandidate == null || candidate.isMoreConstrainedThan(bestCandidate)) {
+          best = index;
+          bestCandidate = candidate;
+        }
+      }
+      if (bestCandidate == null) {
+        break;
+      }
+
+      Event event = new Event(titles.get(best), bestCandidate.place(), bestCandidate.attendees);
+      placed[best] = event;
+      for (String attendee : bestCandidate.attendees) {
+        busy.get(attendee).add(event.getWhen());
+      }
+      stillFit.remove(Integer.valueOf(best));
+      remaining = stillFit;
+    }
+
+    List<Event> events = new ArrayList<>();
+    List<MeetingRequest> unscheduled = new ArrayList<>();
+    for (int i = 0; i < placed.length; i++) {
+      if (placed[i] != null) {
+        events.add(placed[i]);
+      } else {
+        unscheduled.add(requests.get(i));
+      }
+    }
+    return new Plan(events, unscheduled);
+  }
+
+  /**
+   * Where a meeting could go, given what has been placed so far.
+   */
+  private static final class Candidate {
+    private final Collection<String> attendees;
+    private final long duration;
+    private final List<TimeRange> availableTimes;
+    private final long startCount;
+
+    private Candidate(Collection<String> attendees, long duration, List<TimeRange> availableTimes) {
+      this.attendees = attendees;
+      this.duration = duration;
+      this.availableTimes = availableTimes;
+
+      long starts = 0;
+      for (TimeRange time : availableTimes) {
+        starts += time.duration() - duration + 1;
+      }
+      this.startCount = starts;
+    }
+
+    /**
+     * Returns where {@code request} could go, or null if it does not fit anywhere.
+     */
+    static Candidate of(MeetingRequest request, Map<String, MinuteMask> busy) {
+      long duration = request.getDuration();
+      if (duration <= 0) {
+        // A meeting without any duration does not need a time.
+        return null;
+      }
+
+      MinuteMask mandatoryBusy = new MinuteMask();
+      for (String attendee : request.getAttendees()) {
+        mandatoryBusy.or(busy.get(attendee));
+      }
+
+      if (!request.getOptionalAttendees().isEmpty()) {
+        MinuteMask mandatoryAndOptionalBusy = new MinuteMask();
+        mandatoryAndOptionalBusy.or(mandatoryBusy);
+        for (String attendee : request.getOptionalAttendees()) {
+          mandatoryAndOptionalBusy.or(busy.get(attendee));
+        }
+
+        List<TimeRange> availableTimes = mandatoryAndOptionalBusy.getAvailableTimes(duration);
+        if (!availableTimes.isEmpty()) {
+          List<String> attendees = new ArrayList<>(request.getAttendees());
+          attendees.addAll(request.getOptionalAttendees());
+          return new Candidate(attendees, duration, availableTimes);
+        }
+      }
+
+      List<TimeRange> availableTimes = mandatoryBusy.getAvailableTimes(duration);
+      return availableTimes.isEmpty() ? null : new Candidate(request.getAttendees(), duration, availableTimes);
+    }
+
+    /**
+     * Checks whether this meeting should be placed before {@code other}: it has fewer start times
+     * left, or as many and is longer, or as long and has more attendees.
+     */
+    boolean isMoreConstrainedThan(Candidate other) {
+      if (startCount != other.startCount) {
+        return startCount < other.startCount;
+      }
+      if (duration != other.duration) {
+        return duration > other.duration;
+      }
+      return attendees.size() > other.attendees.size();
+    }
+
+    /**
+     * Returns the time to book: the start of the tightest free time, or the earliest of the
+     * tightest ones.
+     */
+    TimeRange place() {
+      TimeRange tightest = availableTimes.get(0);
+      for (TimeRange time : availableTimes) {
+        if (time.duration() < tightest.duration()) {
+          tightest = time;
+        }
+      }
+      return TimeRange.fromStartDuration(tightest.start(), (int) duration);
+    }
+  }
+
+  /**
+   * The outcome of {@code schedule}.
+   */
+  public static final class Plan {
+    private final List<Event> events;
+    private final List<MeetingRequest> unscheduled;
+
+    private Plan(List<Event> events, List<MeetingRequest> unscheduled) {
+      this.events = Collections.unmodifiableList(events);
+      this.unscheduled = Collections.unmodifiableList(unscheduled);
+    }
+
+    /**
+     * Returns the booked events, in the same order as their requests.
+     */
+    public List<Event> getEvents() {
+      return events;
+    }
+
+    /**
+     * Returns the requests that could not be placed, in the order they were given.
+     */
+    public List<MeetingRequest> getUnscheduled() {
+      return unscheduled;
+    }
+  }
+}
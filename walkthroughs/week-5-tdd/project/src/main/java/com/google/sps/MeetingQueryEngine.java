@@ -0,0 +1,36 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+
+/**
+ * An algorithm that finds the times when a meeting can be scheduled. Every engine must return the
+ * same ranges as {@code FindMeetingQuery} for the same events and request, so callers can swap one
+ * engine for another without changing their results.
+ */
+public interface MeetingQueryEngine {
+  /**
+   * Return time ranges when an event can be scheduled for all mandatory attendees of the meeting
+   * request, including the optional attendees too when that leaves at least one option. Requests
+   * with a quorum only need that many of the mandatory attendees to be free, and requests with a
+   * limit only get that many of the earliest options.
+   *
+   * @param events The complete collection of events in the booking system.
+   * @param request The specific meeting request that the user is making.
+   * @return The list of available event times, sorted by start time.
+   */
+  Collection<TimeRange> query(Collection<Event> events, MeetingRequest request);
+}
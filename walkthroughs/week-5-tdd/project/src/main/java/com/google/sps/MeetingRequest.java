@@ -39,6 +39,15 @@ public final class MeetingRequest {
   // The duration of the meeting in minutes.
   private final long duration;
 
+  // How many of the attendees must be free for the meeting to go ahead. Zero means all of them.
+  private int quorum;
+
+  // The most options the client wants back. Zero means every option.
+  private int limit;
+
+  // The fewest seats the meeting room needs, when a room is booked too. Zero means any room.
+  private int min_capacity;
+
   public MeetingRequest(Collection<String> attendees, long duration) {
     this.duration = duration;
     this.attendees.addAll(attendees);
@@ -58,6 +67,24 @@ public final class MeetingRequest {
     return Collections.unmodifiableCollection(optional_attendees);
   }
 
+  /**
+   * Returns the sorted ids in {@code AttendeeDictionary.getDefault()} of the required attendees
+   * that are known to the dictionary. Attendees without an id are left out, since no event can
+   * include them.
+   */
+  public int[] getAttendeeIds() {
+    return AttendeeDictionary.getDefault().lookupAll(attendees);
+  }
+
+  /**
+   * Returns the sorted ids in {@code AttendeeDictionary.getDefault()} of the optional attendees
+   * that are known to the dictionary. Attendees without an id are left out, since no event can
+   * include them.
+   */
+  public int[] getOptionalAttendeeIds() {
+    return AttendeeDictionary.getDefault().lookupAll(optional_attendees);
+  }
+
   /**
    * Adds one optional attendee for the meeting.
    */
@@ -73,4 +100,65 @@ public final class MeetingRequest {
   public long getDuration() {
     return duration;
   }
+
+  /**
+   * Returns the most options to return, or zero if every option should be returned.
+   */
+  public int getLimit() {
+    return limit;
+  }
+
+  /**
+   * Sets the most options to return. Zero means every option.
+   */
+  public void setLimit(int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("limit cannot be negative");
+    }
+    this.limit = limit;
+  }
+
+  /**
+   * Returns how many of the required attendees must be free, or zero if all of them must be.
+   * Optional attendees are not counted towards the quorum.
+   */
+  public int getQuorum() {
+    return quorum;
+  }
+
+  /**
+   * Returns whether only some of the required attendees must be free, so the request needs a
+   * quorum query rather than every attendee's busy times merged. A quorum of every required
+   * attendee is the same as no quorum, and gets the same answer as a request without one.
+   */
+  public boolean hasQuorum() {
+    return quorum > 0 && quorum != attendees.size();
+  }
+
+  /**
+   * Sets how many of the required attendees must be free. Zero means every attendee must be.
+   */
+  public void setQuorum(int quorum) {
+    if (quorum < 0) {
+      throw new IllegalArgumentException("quorum cannot be negative");
+    }
+    this.quorum = quorum;
+  }
+
+  /**
+   * Returns the fewest seats a room needs for this meeting, or zero if any room will do.
+   */
+  public int getMinCapacity() {
+    return min_capacity;
+  }
+
+  /**
+   * Sets the fewest seats a room needs for this meeting. Zero means any room will do.
+   */
+  public void setMinCapacity(int minCapacity) {
+    if (minCapacity < 0) {
+      throw new IllegalArgumentException("minCapacity cannot be negative");
+    }
+    this.min_capacity = minCapacity;
+  }
 }
@@ -0,0 +1,152 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ways of merging the busy times of several attendees into the times when at least one of them is
+ * busy. Every strategy gives the same answer: overlapping times are merged using
+ * {@code TimeRange.overlaps}, so times that only touch are kept apart.
+ */
+public enum MergeStrategy {
+  /**
+   * Concatenates every attendee's times and sorts them before merging. This takes O(n log n) time
+   * for n busy times and ignores that each attendee's times are already sorted.
+   */
+  SORT_THEN_MERGE {
+    @Override
+    public List<TimeRange> merge(List<List<TimeRange>> sortedSchedules) {
+      ArrayList<TimeRange> eventTimes = new ArrayList<>();
+      for (List<TimeRange> schedule : sortedSchedules) {
+        eventTimes.addAll(schedule);
+      }
+
+      // Sort the times to reduce time complexity by allowing us to identify overlap quicker
+      eventTimes.sort(TimeRange.ORDER_BY_START);
+
+      List<TimeRange> mergedEventTimes = new ArrayList<>();
+      for (TimeRange time : eventTimes) {
+        addMerged(mergedEventTimes, time);
+      }
+      return mergedEventTimes;
+    }
+  },
+
+  /**
+   * Merges the attendees' already sorted times directly, using a min-heap holding the next time of
+   * each attendee. This takes O(n log k) time for n busy times across k attendees and never copies
+   * the times into one list to sort.
+   */
+  K_WAY_MERGE {
+    @Override
+    public List<TimeRange> merge(List<List<TimeRange>> sortedSchedules) {
+      int scheduleCount = sortedSchedules.size();
+
+      // The heap holds the index of each schedule with times left, ordered by the start of the next
+      // time in that schedule. Plain arrays keep the inner loop free of boxing.
+      int[] positions = new int[scheduleCount];
+      int[] heap = new int[scheduleCount];
+      int heapSize = 0;
+      for (int i = 0; i < scheduleCount; i++) {
+        if (!sortedSchedules.get(i).isEmpty()) {
+          heap[heapSize++] = i;
+        }
+      }
+      for (int i = heapSize / 2 - 1; i >= 0; i--) {
+        siftDown(sortedSchedules, positions, heap, heapSize, i);
+      }
+
+      List<TimeRange> mergedEventTimes = new ArrayList<>();
+      while (heapSize > 0) {
+        int schedule = heap[0];
+        List<TimeRange> times = sortedSchedules.get(schedule);
+        addMerged(mergedEventTimes, times.get(positions[schedule]));
+
+        positions[schedule]++;
+        if (positions[schedule] == times.size()) {
+          heap[0] = heap[--heapSize];
+        }
+        if (heapSize > 0) {
+          siftDown(sortedSchedules, positions, heap, heapSize, 0);
+        }
+      }
+      return mergedEventTimes;
+    }
+  };
+
+  /**
+   * Merges the busy times of several attendees.
+   *
+   * @param sortedSchedules The busy times of each attendee, each sorted by start time.
+   * @return The times when at least one attendee is busy, sorted by start time.
+   */
+  public abstract List<TimeRange> merge(List<List<TimeRange>> sortedSchedules);
+
+  /**
+   * Appends {@code time} to {@code mergedEventTimes}, or extends the last merged time if the two
+   * overlap. Times must be added in order of start time.
+   */
+  private static void addMerged(List<TimeRange> mergedEventTimes, TimeRange time) {
+    int last = mergedEventTimes.size() - 1;
+
+    // Append the time if there's no overlap with the last merged time or nothing has been merged yet
+    if (last < 0 || !mergedEventTimes.get(last).overlaps(time)) {
+      mergedEventTimes.add(time);
+      return;
+    }
+
+    // Otherwise merge the two by updating the last merged time in place
+    TimeRange lastTime = mergedEventTimes.get(last);
+    if (time.end() > lastTime.end()) {
+      mergedEventTimes.set(last, TimeRange.fromStartEnd(lastTime.start(), time.end(), false));
+    }
+  }
+
+  /**
+   * Restores the heap order below {@code index}, comparing schedules by the start of their next time.
+   */
+  private static void siftDown(
+      List<List<TimeRange>> sortedSchedules, int[] positions, int[] heap, int heapSize, int index) {
+    int schedule = heap[index];
+    int start = nextStart(sortedSchedules, positions, schedule);
+    while (true) {
+      int child = 2 * index + 1;
+      if (child >= heapSize) {
+        break;
+      }
+      int childStart = nextStart(sortedSchedules, positions, heap[child]);
+      if (child + 1 < heapSize) {
+        int siblingStart = nextStart(sortedSchedules, positions, heap[child + 1]);
+        if (siblingStart < childStart) {
+          child++;
+          childStart = siblingStart;
+        }
+      }
+      if (start <= childStart) {
+        break;
+      }
+      heap[index] = heap[child];
+      index = child;
+    }
+    heap[index] = schedule;
+  }
+
+  private static int nextStart(List<List<TimeRange>> sortedSchedules, int[] positions, int schedule) {
+    return sortedSchedules.get(schedule).get(positions[schedule]).start();
+  }
+}
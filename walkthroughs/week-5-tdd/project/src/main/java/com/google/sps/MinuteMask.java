@@ -0,0 +1,196 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A set of busy minutes within one day, stored as one bit per minute. A day has 1440 minutes, so
+ * the whole mask fits in 23 {@code long} words and combining masks or searching for free time costs
+ * the same no matter how many events went into them.
+ *
+ * <p>Events without any duration do not make a minute busy, but {@code FindMeetingQuery} still
+ * splits the free time around them. The mask remembers those points separately so its available
+ * times match.
+ */
+public final class MinuteMask {
+  static final int MINUTES = TimeRange.WHOLE_DAY.duration();
+
+  // One extra bit so that a point at the very end of the day can be recorded.
+  static final int WORDS = (MINUTES + 1 + 63) / 64;
+
+  private final long[] busy = new long[WORDS];
+  private final long[] boundaries = new long[WORDS];
+  private boolean hasEvents;
+
+  /**
+   * Marks every minute of {@code range} as busy. Parts of the range outside the day are ignored.
+   */
+  public void add(TimeRange range) {
+    hasEvents = true;
+
+    int start = Math.max(range.start(), TimeRange.START_OF_DAY);
+    int end = Math.min(range.end(), MINUTES);
+    if (range.duration() <= 0) {
+      if (range.start() >= TimeRange.START_OF_DAY && range.start() <= MINUTES) {
+        boundaries[range.start() >>> 6] |= 1L << range.start();
+      }
+    } else if (start < end) {
+      setRange(busy, start, end);
+    }
+  }
+
+  /**
+   * Marks every minute that is busy in {@code other} as busy in this mask too.
+   */
+  public void or(MinuteMask other) {
+    hasEvents |= other.hasEvents;
+    for (int i = 0; i < WORDS; i++) {
+      busy[i] |= other.busy[i];
+      boundaries[i] |= other.boundaries[i];
+    }
+  }
+
+  /**
+   * Returns true if no range was ever added to this mask.
+   */
+  public boolean isEmpty() {
+    return !hasEvents;
+  }
+
+  /**
+   * Returns true if {@code minute} is within the day and not busy.
+   */
+  public boolean isFree(int minute) {
+    return minute >= TimeRange.START_OF_DAY && minute < MINUTES
+        && (busy[minute >>> 6] & (1L << minute)) == 0;
+  }
+
+  /**
+   * Returns every free range that is at least {@code duration} minutes long, sorted by start.
+   */
+  public List<TimeRange> getAvailableTimes(long duration) {
+    List<TimeRange> availableTimes = new ArrayList<>();
+    addAvailableTimes(duration, availableTimes);
+    return availableTimes;
+  }
+
+  /**
+   * Adds every free range that is at least {@code duration} minutes long to {@code availableTimes},
+   * in order. The result matches {@code FindMeetingQuery} for meetings of at least one minute.
+   */
+  public void addAvailableTimes(long duration, Collection<TimeRange> availableTimes) {
+    if (!hasEvents) {
+      if (duration <= MINUTES) {
+        availableTimes.add(TimeRange.WHOLE_DAY);
+      }
+      return;
+    }
+
+    int position = TimeRange.START_OF_DAY;
+    while (position < MINUTES) {
+      int freeStart = nextClearBit(busy, position);
+      if (freeStart >= MINUTES) {
+        break;
+      }
+      int freeEnd = nextSetBit(busy, freeStart);
+
+      // Split the free run at every point left by an event without any duration.
+      int runStart = freeStart;
+      for (int point = nextSetBit(boundaries, freeStart + 1); point < freeEnd;
+          point = nextSetBit(boundaries, point + 1)) {
+        addIfLongEnough(runStart, point, duration, availableTimes);
+        runStart = point;
+      }
+      addIfLongEnough(runStart, freeEnd, duration, availableTimes);
+
+      position = freeEnd;
+    }
+  }
+
+  private void addIfLongEnough(
+      int start, int end, long duration, Collection<TimeRange> availableTimes) {
+    if (end == MINUTES && (boundaries[MINUTES >>> 6] & (1L << MINUTES)) == 0) {
+      // Like {@code FindMeetingQuery}, the time after the last event runs to the inclusive end of
+      // the day, which leaves one minute less to fit the meeting in.
+      if (TimeRange.END_OF_DAY - start >= duration) {
+        availableTimes.add(TimeRange.fromStartEnd(start, TimeRange.END_OF_DAY, true));
+      }
+    } else if (end - start >= duration) {
+      availableTimes.add(TimeRange.fromStartEnd(start, end, false));
+    }
+  }
+
+  /**
+   * Sets the bits {@code [start, end)}, filling whole words at a time.
+   */
+  static void setRange(long[] words, int start, int end) {
+    int firstWord = start >>> 6;
+    int lastWord = (end - 1) >>> 6;
+    long firstMask = -1L << start;
+    long lastMask = -1L >>> -end;
+
+    if (firstWord == lastWord) {
+      words[firstWord] |= firstMask & lastMask;
+      return;
+    }
+
+    words[firstWord] |= firstMask;
+    for (int i = firstWord + 1; i < lastWord; i++) {
+      words[i] = -1L;
+    }
+    words[lastWord] |= lastMask;
+  }
+
+  /**
+   * Returns the first set bit at or after {@code from}, or the end of the day if there is none.
+   */
+  static int nextSetBit(long[] words, int from) {
+    if (from >= MINUTES) {
+      return MINUTES;
+    }
+
+    int index = from >>> 6;
+    long word = words[index] & (-1L << from);
+    while (word == 0) {
+      if (++index == WORDS) {
+        return MINUTES;
+      }
+      word = words[index];
+    }
+    return Math.min(MINUTES, (index << 6) + Long.numberOfTrailingZeros(word));
+  }
+
+  /**
+   * Returns the first clear bit at or after {@code from}, or the end of the day if there is none.
+   */
+  static int nextClearBit(long[] words, int from) {
+    if (from >= MINUTES) {
+      return MINUTES;
+    }
+
+    int index = from >>> 6;
+    long word = ~words[index] & (-1L << from);
+    while (word == 0) {
+      if (++index == WORDS) {
+        return MINUTES;
+      }
+      word = ~words[index];
+    }
+    return Math.min(MINUTES, (index << 6) + Long.numberOfTrailingZeros(word));
+  }
+}
@@ -0,0 +1,372 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A mutable store of busy times for very large calendars, kept outside the Java heap. Every
+ * attendee's event times are packed by {@code Intervals} into a region of direct memory, sorted by
+ * start. The heap only holds three numbers per attendee saying where their region is, so the
+ * garbage collector has the same small amount to scan however many events are stored.
+ *
+ * <p>Regions are carved out of large direct buffers in power-of-two sizes. When a region fills up,
+ * the attendee's times move to a region twice the size, and the old region is reused for the next
+ * attendee that needs one of that size. Event titles are not kept, and events are told apart by
+ * their time and attendees alone. Stores are not thread-safe.
+ */
+public final class OffHeapEventStore implements ScheduleSource {
+  // Shared buffers start small and double up to the largest size, in packed times. Regions larger
+  // than that get their own buffer.
+  private static final int MIN_SLAB_TIMES = 1 << 10;
+  private static final int MAX_SLAB_TIMES = 1 << 16;
+  private static final int MIN_REGION_TIMES = 4;
+
+  private final List<LongBuffer> slabs = new ArrayList<>();
+  private long offHeapBytes;
+
+  // The shared buffer that new regions are cut from, its size, and how much of it is used.
+  private int currentSlab = -1;
+  private int currentSlabTimes;
+  private int currentSlabUsed;
+
+  // Regions that are no longer used, by size class: class k holds regions of 4 << k times.
+  private long[][] freeRegions = new long[0][];
+  private int[] freeRegionCounts = new int[0];
+
+  // Where each attendee's times are, indexed by their id in AttendeeDictionary.getDefault().
+  private long[] regions = new long[0];
+  private int[] counts = new int[0];
+  private int[] capacities = new int[0];
+
+  private int eventCount;
+  private long version;
+
+  /**
+   * Creates an empty store.
+   */
+  public OffHeapEventStore() {}
+
+  /**
+   * Creates a store holding {@code events}.
+   *
+   * @param events The events to add. Must be non-null.
+   */
+  public OffHeapEventStore(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty collection instead.");
+    }
+
+    for (Event event : events) {
+      addEvent(event);
+    }
+  }
+
+  /**
+   * Adds an event, making its attendees busy for the event's time. Adding the same event twice
+   * stores two copies of it. Events without attendees make nobody busy and are not stored.
+   */
+  public void addEvent(Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    add(Intervals.pack(event.getWhen()), event.attendeeIds());
+  }
+
+  /**
+   * Makes {@code attendees} busy for {@code when}, without building an {@code Event}. This is the
+   * cheapest way to load a large calendar.
+   */
+  public void add(TimeRange when, Collection<String> attendees) {
+    if (when == null || attendees == null) {
+      throw new IllegalArgumentException("when and attendees cannot be null");
+    }
+
+    add(Intervals.pack(when), AttendeeDictionary.getDefault().internAll(attendees));
+  }
+
+  /**
+   * Removes one copy of an event, or of any event with the same time and attendees.
+   *
+   * @return {@code true} if such an event was in the store.
+   */
+  public boolean removeEvent(Event event) {
+    if (event == null || event.attendeeIds().length == 0) {
+      return false;
+    }
+
+    long range = Intervals.pack(event.getWhen());
+    int[] attendees = event.attendeeIds();
+
+    // Check every attendee first, so that nothing changes unless the whole event is found.
+    int[] indexes = new int[attendees.length];
+    for (int i = 0; i < attendees.length; i++) {
+      indexes[i] = attendees[i] < counts.length ? indexOf(attendees[i], range) : -1;
+      if (indexes[i] < 0) {
+        return false;
+      }
+    }
+
+    for (int i = 0; i < attendees.length; i++) {
+      removeAt(attendees[i], indexes[i]);
+    }
+    eventCount--;
+    version++;
+    return true;
+  }
+
+  /**
+   * Returns a read-only list of the times when {@code attendee} is busy, sorted by start time. The
+   * list reads the store directly, so it is only valid until the store next changes.
+   */
+  @Override
+  public List<TimeRange> getTimes(String attendee) {
+    int id = AttendeeDictionary.getDefault().lookup(attendee);
+    if (id < 0 || id >= counts.length || counts[id] == 0) {
+      return Collections.emptyList();
+    }
+
+    LongBuffer slab = slabs.get(slabOf(regions[id]));
+    int first = offsetOf(regions[id]);
+    int size = counts[id];
+    return new AbstractList<TimeRange>() {
+      @Override
+      public TimeRange get(int index) {
+        if (index < 0 || index >= size) {
+          throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        long range = slab.get(first + index);
+        return TimeRange.fromStartEnd(Intervals.start(range), Intervals.end(range), false);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  /**
+   * Returns the number of times an event has been added to or removed from the store.
+   */
+  @Override
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns the number of events in the store.
+   */
+  public int size() {
+    return eventCount;
+  }
+
+  /**
+   * Returns how much direct memory the store has allocated, in bytes.
+   */
+  public long getOffHeapBytes() {
+    return offHeapBytes;
+  }
+
+  private void add(long range, int[] attendees) {
+    if (attendees.length == 0) {
+      return;
+    }
+
+    for (int attendee : attendees) {
+      insert(attendee, range);
+    }
+    eventCount++;
+    version++;
+  }
+
+  /**
+   * Inserts {@code range} into {@code attendee}'s times, after any equal ranges.
+   */
+  private void insert(int attendee, long range) {
+    if (attendee >= counts.length) {
+      int length = Math.max(attendee + 1, 2 * counts.length);
+      regions = Arrays.copyOf(regions, length);
+      counts = Arrays.copyOf(counts, length);
+      capacities = Arrays.copyOf(capacities, length);
+    }
+
+    int count = counts[attendee];
+    if (count == capacities[attendee]) {
+      grow(attendee);
+    }
+
+    LongBuffer slab = slabs.get(slabOf(regions[attendee]));
+    int first = offsetOf(regions[attendee]);
+
+    // Events mostly arrive in order, so check the end before searching.
+    int index = count;
+    if (count > 0 && slab.get(first + count - 1) > range) {
+      index = upperBound(slab, first, count, range);
+      for (int i = count; i > index; i--) {
+        slab.put(first + i, slab.get(first + i - 1));
+      }
+    }
+    slab.put(first + index, range);
+    counts[attendee] = count + 1;
+  }
+
+  /**
+   * Returns the index of one copy of {@code range} in {@code attendee}'s times, or -1 if there is
+   * none.
+   */
+  private int indexOf(int attendee, long range) {
+    int count = counts[attendee];
+    if (count == 0) {
+      return -1;
+    }
+
+    LongBuffer slab = slabs.get(slabOf(regions[attendee]));
+    int first = offsetOf(regions[attendee]);
+    int index = upperBound(slab, first, count, range) - 1;
+    return index >= 0 && slab.get(first + index) == range ? index : -1;
+  }
+
+  private void removeAt(int attendee, int index) {
+    LongBuffer slab = slabs.get(slabOf(regions[attendee]));
+    int first = offsetOf(regions[attendee]);
+    int count = counts[attendee] - 1;
+    for (int i = index; i < count; i++) {
+      slab.put(first + i, slab.get(first + i + 1));
+    }
+    counts[attendee] = count;
+
+    if (count == 0) {
+      // Give the region back, so attendees who no longer have events take no direct memory.
+      free(regions[attendee], capacities[attendee]);
+      capacities[attendee] = 0;
+    }
+  }
+
+  /**
+   * Moves {@code attendee}'s times to a region twice as large, or to a first region.
+   */
+  private void grow(int attendee) {
+    int capacity = capacities[attendee];
+    int newCapacity = capacity == 0 ? MIN_REGION_TIMES : 2 * capacity;
+    long newRegion = allocate(newCapacity);
+
+    if (capacity > 0) {
+      LongBuffer from = slabs.get(slabOf(regions[attendee]));
+      LongBuffer to = slabs.get(slabOf(newRegion));
+      int fromFirst = offsetOf(regions[attendee]);
+      int toFirst = offsetOf(newRegion);
+      for (int i = 0; i < counts[attendee]; i++) {
+        to.put(toFirst + i, from.get(fromFirst + i));
+      }
+      free(regions[attendee], capacity);
+    }
+
+    regions[attendee] = newRegion;
+    capacities[attendee] = newCapacity;
+  }
+
+  /**
+   * Returns a region with room for {@code capacity} times, which must be a power of two.
+   */
+  private long allocate(int capacity) {
+    int sizeClass = sizeClass(capacity);
+    if (sizeClass < freeRegionCounts.length && freeRegionCounts[sizeClass] > 0) {
+      return freeRegions[sizeClass][--freeRegionCounts[sizeClass]];
+    }
+
+    if (capacity > MAX_SLAB_TIMES) {
+      slabs.add(allocateSlab(capacity));
+      return region(slabs.size() - 1, 0);
+    }
+
+    if (currentSlabUsed + capacity > currentSlabTimes) {
+      // The rest of the current buffer is too small, so it is left unused.
+      currentSlabTimes = Math.max(capacity,
+          currentSlab < 0 ? MIN_SLAB_TIMES : Math.min(2 * currentSlabTimes, MAX_SLAB_TIMES));
+      slabs.add(allocateSlab(currentSlabTimes));
+      currentSlab = slabs.size() - 1;
+      currentSlabUsed = 0;
+    }
+    long region = region(currentSlab, currentSlabUsed);
+    currentSlabUsed += capacity;
+    return region;
+  }
+
+  private void free(long region, int capacity) {
+    int sizeClass = sizeClass(capacity);
+    if (sizeClass >= freeRegionCounts.length) {
+      freeRegions = Arrays.copyOf(freeRegions, sizeClass + 1);
+      freeRegionCounts = Arrays.copyOf(freeRegionCounts, sizeClass + 1);
+    }
+    if (freeRegions[sizeClass] == null) {
+      freeRegions[sizeClass] = new long[8];
+    } else if (freeRegionCounts[sizeClass] == freeRegions[sizeClass].length) {
+      freeRegions[sizeClass] = Arrays.copyOf(freeRegions[sizeClass], 2 * freeRegionCounts[sizeClass]);
+    }
+    freeRegions[sizeClass][freeRegionCounts[sizeClass]++] = region;
+  }
+
+  private LongBuffer allocateSlab(int times) {
+    offHeapBytes += (long) times * Long.BYTES;
+    return ByteBuffer.allocateDirect(times * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+  }
+
+  /**
+   * Returns the first index in {@code [first, first + count)} whose range is greater than
+   * {@code range}, counted from {@code first}.
+   */
+  private static int upperBound(LongBuffer slab, int first, int count, long range) {
+    int low = 0;
+    int high = count;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (slab.get(first + middle) <= range) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static int sizeClass(int capacity) {
+    return Integer.numberOfTrailingZeros(capacity / MIN_REGION_TIMES);
+  }
+
+  // A region is the index of its buffer in the high half and its first time in the low half.
+
+  private static long region(int slab, int offset) {
+    return (long) slab << 32 | offset;
+  }
+
+  private static int slabOf(long region) {
+    return (int) (region >>> 32);
+  }
+
+  private static int offsetOf(long region) {
+    return (int) region;
+  }
+}
@@ -0,0 +1,164 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Finds the times when every mandatory attendee is free and as many optional attendees as possible
+ * can join, using one sweep over the possible start times of the meeting.
+ *
+ * <p>A meeting starting at minute {@code t} runs over {@code [t, t + duration)}, so a busy time
+ * {@code [a, b)} clashes with every start in {@code (a - duration, b)}. Each busy time is widened
+ * to the starts it rules out, and a difference array over the starts of the day counts how many
+ * people are busy at some point during a meeting at each start. The fewest optional attendees who
+ * must miss the meeting is the smallest count of any start, and the returned ranges are made of
+ * the runs of starts with that count. Each range only holds meetings that the same number of
+ * optional attendees miss, but ranges may overlap when different people miss each of them.
+ */
+final class OptionalAttendeeSweep {
+  private OptionalAttendeeSweep() {}
+
+  /**
+   * Return the time ranges where every mandatory attendee is free and the fewest optional attendees
+   * are busy for any part of the meeting.
+   *
+   * @param schedules The busy times of every attendee in the booking system.
+   * @param request The specific meeting request that the user is making.
+   * @return The list of available event times, or an empty list if the mandatory attendees never
+   *     have enough time.
+   */
+  static List<TimeRange> query(ScheduleSource schedules, MeetingRequest request) {
+    List<TimeRange> availableTimes = new ArrayList<>();
+    long duration = request.getDuration();
+    if (duration > TimeRange.WHOLE_DAY.duration()) {
+      return availableTimes;
+    }
+
+    // A meeting without any duration still needs its starting minute to be free.
+    int length = (int) Math.max(duration, 1);
+    StartCounts counts = new StartCounts(TimeRange.WHOLE_DAY.end() - length, length);
+
+    // A mandatory attendee being busy must outweigh every optional attendee being busy at once.
+    Collection<String> optionalAttendees = request.getOptionalAttendees();
+    int mandatoryWeight = optionalAttendees.size() + 1;
+
+    for (String attendee : request.getAttendees()) {
+      for (TimeRange time : schedules.getTimes(attendee)) {
+        counts.addBusy(time.start(), time.end(), mandatoryWeight);
+      }
+    }
+    for (String attendee : optionalAttendees) {
+      // Merge each optional attendee's widened times first, so that a person whose events are
+      // close together only counts once for a meeting that overlaps several of them.
+      List<TimeRange> times = schedules.getTimes(attendee);
+      long[] ranges = new long[times.size()];
+      for (int i = 0; i < ranges.length; i++) {
+        ranges[i] = Intervals.pack(times.get(i));
+      }
+      int merged = Intervals.sortAndMerge(ranges, ranges.length);
+
+      int runStart = 0;
+      int runEnd = -1;
+      for (int i = 0; i < merged; i++) {
+        int start = Intervals.start(ranges[i]);
+        int end = Intervals.end(ranges[i]);
+        if (start >= end) {
+          continue;
+        }
+        if (runEnd >= 0 && start - length + 1 <= runEnd) {
+          runEnd = Math.max(runEnd, end);
+        } else {
+          if (runEnd >= 0) {
+            counts.addBusy(runStart, runEnd, 1);
+          }
+          runStart = start;
+          runEnd = end;
+        }
+      }
+      if (runEnd >= 0) {
+        counts.addBusy(runStart, runEnd, 1);
+      }
+    }
+
+    int[] busy = counts.sum();
+    int fewest = Integer.MAX_VALUE;
+    for (int count : busy) {
+      fewest = Math.min(fewest, count);
+    }
+    if (fewest >= mandatoryWeight) {
+      return availableTimes;
+    }
+
+    // Each run of starts with the fewest busy people holds meetings from its first start to the
+    // end of a meeting at its last start.
+    int runStart = -1;
+    for (int start = 0; start <= busy.length; start++) {
+      boolean best = start < busy.length && busy[start] == fewest;
+      if (best && runStart < 0) {
+        runStart = start;
+      } else if (!best && runStart >= 0) {
+        availableTimes.add(TimeRange.fromStartEnd(runStart, start - 1 + length, false));
+        runStart = -1;
+      }
+    }
+    return availableTimes;
+  }
+
+  /**
+   * How many people are busy during a meeting at each start time, kept as a difference array.
+   */
+  private static final class StartCounts {
+    private final int[] changes;
+    private final int length;
+
+    StartCounts(int lastStart, int length) {
+      this.changes = new int[lastStart + 2];
+      this.length = length;
+    }
+
+    /**
+     * Counts {@code weight} more busy people for every start whose meeting overlaps
+     * {@code [start, end)}. Times without any duration never overlap a meeting.
+     */
+    void addBusy(int start, int end, int weight) {
+      if (start >= end) {
+        return;
+      }
+      int first = Math.max(0, start - length + 1);
+      int last = Math.min(changes.length - 1, end);
+      if (first < last) {
+        changes[first] += weight;
+        changes[last] -= weight;
+      }
+    }
+
+    /**
+     * Returns the number of busy people for each start, from the start of the day to the last
+     * start that leaves room for the meeting.
+     */
+    int[] sum() {
+      int[] busy = new int[changes.length - 1];
+      int current = 0;
+      for (int i = 0; i < busy.length; i++) {
+        current += changes[i];
+        busy[i] = current;
+      }
+      return busy;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A {@code MeetingQueryEngine} that works on busy ranges packed into primitive arrays. The ranges
+ * are sorted with a primitive sort, merged in place and scanned for gaps without creating an object
+ * per range; {@code TimeRange} objects are only created for the available times it returns.
+ */
+public final class PackedIntervalQuery implements MeetingQueryEngine {
+  @Override
+  public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+    if (request.hasQuorum()) {
+      return Intervals.limit(QuorumQuery.query(new EventIndex(events), request), request.getLimit());
+    }
+
+    int[] mandatoryAttendees = request.getAttendeeIds();
+    int[] optionalAttendees = request.getOptionalAttendeeIds();
+
+    // Every event attended by a mandatory attendee goes into both arrays, and every event attended
+    // only by optional attendees goes into the second one.
+    long[] mandatoryBusy = new long[events.size()];
+    long[] mandatoryAndOptionalBusy = new long[events.size()];
+    int mandatoryCount = 0;
+    int mandatoryAndOptionalCount = 0;
+
+    for (Event event : events) {
+      int[] attendees = event.attendeeIds();
+      boolean hasMandatory = AttendeeDictionary.intersects(attendees, mandatoryAttendees);
+      boolean hasOptional = !hasMandatory && AttendeeDictionary.intersects(attendees, optionalAttendees);
+
+      if (hasMandatory || hasOptional) {
+        long range = Intervals.pack(event.getWhen());
+        mandatoryAndOptionalBusy[mandatoryAndOptionalCount++] = range;
+        if (hasMandatory) {
+          mandatoryBusy[mandatoryCount++] = range;
+        }
+      }
+    }
+
+    long duration = request.getDuration();
+    List<TimeRange> availableTimes = new ArrayList<>();
+
+    int merged = Intervals.sortAndMerge(mandatoryAndOptionalBusy, mandatoryAndOptionalCount);
+    Intervals.addAvailableTimes(mandatoryAndOptionalBusy, merged, duration, availableTimes);
+    if (availableTimes.isEmpty()) {
+      // Nothing works for the optional attendees, so only schedule around the mandatory ones.
+      merged = Intervals.sortAndMerge(mandatoryBusy, mandatoryCount);
+      Intervals.addAvailableTimes(mandatoryBusy, merged, duration, availableTimes);
+    }
+    return Intervals.limit(availableTimes, request.getLimit());
+  }
+}
@@ -0,0 +1,194 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A bounded cache of query answers for one schedule source, or for the latest snapshot of a store. Requests for the same attendees are
+ * answered from the cache no matter what order the attendees were listed in. Every answer remembers
+ * the version of the source it was computed from and is recomputed once the source has changed.
+ * When the cache is full, the answer that was used least recently is dropped. Caches are
+ * thread-safe as long as the source is safe to read concurrently.
+ */
+public final class QueryCache {
+  private final Supplier<? extends ScheduleSource> schedules;
+  private final FindMeetingQuery query;
+  private final Map<Key, CachedAnswer> entries;
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param schedules The busy times that every query is answered from.
+   * @param query The query used to compute answers that are not in the cache.
+   * @param maxEntries The most answers to keep. Must be positive.
+   */
+  public QueryCache(ScheduleSource schedules, FindMeetingQuery query, int maxEntries) {
+    this(() -> schedules, query, maxEntries);
+  }
+
+  /**
+   * Creates an empty cache that answers every query from the source returned by
+   * {@code schedules}, such as the latest snapshot of an {@code EventStore}.
+   *
+   * @param schedules Returns the busy times to answer each query from.
+   * @param query The query used to compute answers that are not in the cache.
+   * @param maxEntries The most answers to keep. Must be positive.
+   */
+  public QueryCache(Supplier<? extends ScheduleSource> schedules, FindMeetingQuery query, int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be positive");
+    }
+
+    this.schedules = schedules;
+    this.query = query;
+    // An access-ordered map keeps the least recently used answer first, ready to be dropped.
+    this.entries = new LinkedHashMap<Key, CachedAnswer>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, CachedAnswer> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Return the same time ranges as {@code FindMeetingQuery.query}, reusing an earlier answer if an
+   * equal request was made since the source last changed.
+   *
+   * @param request The specific meeting request that the user is making.
+   * @return A read-only list of the available event times.
+   */
+  public Collection<TimeRange> query(MeetingRequest request) {
+    Key key = new Key(request);
+    // Read the source once, so that the version and the answer come from the same busy times.
+    ScheduleSource source = schedules.get();
+    long version = source.getVersion();
+
+    CachedAnswer entry;
+    synchronized (entries) {
+      entry = entries.get(key);
+    }
+    if (entry != null && entry.version == version) {
+      hitCount.incrementAndGet();
+      return entry.times;
+    }
+
+    // Compute outside the lock so that slow queries do not hold up hits for other requests. Two
+    // threads missing on the same request at once both compute it, which is harmless.
+    missCount.incrementAndGet();
+    Collection<TimeRange> times =
+        Collections.unmodifiableList(new ArrayList<>(query.query(source, request)));
+    synchronized (entries) {
+      entries.put(key, new CachedAnswer(version, times));
+    }
+    return times;
+  }
+
+  /**
+   * Returns how many queries were answered from the cache.
+   */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * Returns how many queries had to be computed, either because they were not in the cache or
+   * because the source had changed since they were.
+   */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * Returns the number of answers in the cache, including answers that are out of date.
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  /**
+   * Everything about a request that affects its answer. Attendees are kept in sets so that the
+   * order they were listed in does not matter.
+   */
+  private static final class Key {
+    private final Set<String> attendees;
+    private final Set<String> optionalAttendees;
+    private final long duration;
+    private final int quorum;
+    private final int limit;
+    private final int hashCode;
+
+    Key(MeetingRequest request) {
+      attendees = new HashSet<>(request.getAttendees());
+      optionalAttendees = new HashSet<>(request.getOptionalAttendees());
+      duration = request.getDuration();
+      quorum = request.getQuorum();
+      limit = request.getLimit();
+
+      // Set hash codes add up the hash codes of their members, so they do not depend on order.
+      int hash = attendees.hashCode();
+      hash = 31 * hash + optionalAttendees.hashCode();
+      hash = 31 * hash + Long.hashCode(duration);
+      hash = 31 * hash + quorum;
+      hashCode = 31 * hash + limit;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return hashCode == key.hashCode
+          && duration == key.duration
+          && quorum == key.quorum
+          && limit == key.limit
+          && attendees.equals(key.attendees)
+          && optionalAttendees.equals(key.optionalAttendees);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /**
+   * An answer and the version of the source it was computed from.
+   */
+  private static final class CachedAnswer {
+    private final long version;
+    private final Collection<TimeRange> times;
+
+    CachedAnswer(long version, Collection<TimeRange> times) {
+      this.version = version;
+      this.times = times;
+    }
+  }
+}
@@ -0,0 +1,249 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Timings and counts for a sample of the queries made with a {@code FindMeetingQuery}. Each phase
+ * of a query is timed into its own histogram, whose buckets are powers of two nanoseconds. Only
+ * one query in every {@code sampleRate} is recorded, chosen at random, so the stats can be left on
+ * for busy servers: unsampled queries only pay for one random number. Recording never takes a
+ * lock, so stats can be shared by every thread.
+ */
+public final class QueryStats {
+  /** The parts of a query that are timed. */
+  public enum Phase {
+    /** Reading the busy times of each requested attendee. */
+    FIND_EVENT_TIMES,
+    /** Merging the busy times into blocks when nobody is free, or reading them from a cache. */
+    DETERMINE_UNAVAILABLE_TIMES,
+    /** Scanning the gaps between busy blocks for times long enough for the meeting. */
+    DETERMINE_AVAILABLE_TIMES,
+    /** The whole query, including any phases that are not timed on their own. */
+    TOTAL
+  }
+
+  /** The things that are counted for sampled queries. */
+  public enum Counter {
+    /** Busy times read from the requested attendees' schedules. */
+    EVENTS_SCANNED,
+    /** Busy blocks that the busy times were merged into. */
+    INTERVALS_MERGED,
+    /** Available times returned. */
+    SLOTS_PRODUCED
+  }
+
+  // Bucket 0 holds durations of 0ns and bucket i holds durations in [2^(i-1), 2^i).
+  static final int BUCKET_COUNT = 64;
+
+  private static final Phase[] PHASES = Phase.values();
+
+  private final int sampleRate;
+  private final AtomicLongArray buckets = new AtomicLongArray(PHASES.length * BUCKET_COUNT);
+  private final AtomicLongArray totalNanos = new AtomicLongArray(PHASES.length);
+  private final AtomicLongArray counters = new AtomicLongArray(Counter.values().length);
+
+  /**
+   * Creates empty stats.
+   *
+   * @param sampleRate Record one query in every {@code sampleRate}, or none if it is zero.
+   */
+  public QueryStats(int sampleRate) {
+    if (sampleRate < 0) {
+      throw new IllegalArgumentException("sampleRate cannot be negative");
+    }
+
+    this.sampleRate = sampleRate;
+  }
+
+  /**
+   * Returns how often queries are recorded: one in every {@code getSampleRate()}, or none if it is
+   * zero.
+   */
+  public int getSampleRate() {
+    return sampleRate;
+  }
+
+  /**
+   * Decide whether to record a query that is about to start. The returned sample times the first
+   * phase from now, and does nothing if the query is not sampled.
+   */
+  public Sample startSample() {
+    if (sampleRate == 0 || (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0)) {
+      return Sample.UNSAMPLED;
+    }
+    return new Sample(this);
+  }
+
+  /**
+   * Returns how many sampled queries went through {@code phase}.
+   */
+  public long getCount(Phase phase) {
+    long count = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      count += buckets.get(phase.ordinal() * BUCKET_COUNT + i);
+    }
+    return count;
+  }
+
+  /**
+   * Returns the time that sampled queries spent in {@code phase}, added up.
+   */
+  public long getTotalNanos(Phase phase) {
+    return totalNanos.get(phase.ordinal());
+  }
+
+  /**
+   * Returns how many times {@code phase} took a duration in each bucket. Bucket 0 counts durations
+   * of zero and bucket {@code i} counts durations below {@code 2^i} nanoseconds that did not fit in
+   * an earlier bucket.
+   */
+  public long[] getBucketCounts(Phase phase) {
+    long[] counts = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts[i] = buckets.get(phase.ordinal() * BUCKET_COUNT + i);
+    }
+    return counts;
+  }
+
+  /**
+   * Returns an upper bound on the time within which {@code percentile} percent of the sampled
+   * queries finished {@code phase}, or 0 if none have. The bound is at most twice the true value.
+   */
+  public long getPercentileNanos(Phase phase, double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("percentile must be between 0 and 100");
+    }
+
+    // Read the buckets once so that the count and the scan agree while other threads record.
+    long[] counts = getBucketCounts(phase);
+    long count = 0;
+    for (long bucketCount : counts) {
+      count += bucketCount;
+    }
+    if (count == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+    long seen = 0;
+    int bucket = 0;
+    while (seen + counts[bucket] < rank) {
+      seen += counts[bucket];
+      bucket++;
+    }
+    return upperBound(bucket);
+  }
+
+  /**
+   * Returns the total of {@code counter} over the sampled queries.
+   */
+  public long getCounter(Counter counter) {
+    return counters.get(counter.ordinal());
+  }
+
+  /**
+   * Returns the largest duration, in nanoseconds, that falls in {@code bucket} of
+   * {@code getBucketCounts}.
+   */
+  public static long upperBound(int bucket) {
+    return bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+  }
+
+  private void record(Phase phase, long nanos) {
+    // Negative durations can only come from a misbehaving clock, so count them as zero.
+    long duration = Math.max(0, nanos);
+    int bucket = Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(duration));
+    buckets.incrementAndGet(phase.ordinal() * BUCKET_COUNT + bucket);
+    totalNanos.addAndGet(phase.ordinal(), duration);
+  }
+
+  /**
+   * The timings of one query, added up per phase while it runs and recorded into its stats once it
+   * ends, so that a query that goes through a phase more than once still counts once for it.
+   * Samples belong to the thread running the query.
+   */
+  public static final class Sample {
+    // Shared by every query that is not sampled, so skipping a query allocates nothing.
+    static final Sample UNSAMPLED = new Sample(null);
+
+    private final QueryStats stats;
+    private final long queryStart;
+    private long phaseStart;
+
+    // The time spent in each phase so far, or -1 for phases the query has not been through.
+    private final long[] phaseNanos;
+
+    private Sample(QueryStats stats) {
+      this.stats = stats;
+      this.queryStart = stats == null ? 0 : System.nanoTime();
+      this.phaseStart = queryStart;
+      this.phaseNanos = stats == null ? null : new long[PHASES.length];
+      if (phaseNanos != null) {
+        Arrays.fill(phaseNanos, -1);
+      }
+    }
+
+    /**
+     * Returns whether this query is recorded. Work done only to count things can be skipped if not.
+     */
+    public boolean isSampled() {
+      return stats != null;
+    }
+
+    /**
+     * Add the time since the previous phase ended, or since the query started, to {@code phase}.
+     */
+    public void endPhase(Phase phase) {
+      if (stats == null) {
+        return;
+      }
+
+      long now = System.nanoTime();
+      phaseNanos[phase.ordinal()] = Math.max(0, phaseNanos[phase.ordinal()]) + (now - phaseStart);
+      phaseStart = now;
+    }
+
+    /**
+     * Add {@code amount} to {@code counter}.
+     */
+    public void count(Counter counter, long amount) {
+      if (stats != null) {
+        stats.counters.addAndGet(counter.ordinal(), amount);
+      }
+    }
+
+    /**
+     * Record the time spent in each phase the query went through, and the time since the query
+     * started as {@code Phase.TOTAL}.
+     */
+    public void end() {
+      if (stats == null) {
+        return;
+      }
+
+      for (Phase phase : PHASES) {
+        if (phase != Phase.TOTAL && phaseNanos[phase.ordinal()] >= 0) {
+          stats.record(phase, phaseNanos[phase.ordinal()]);
+        }
+      }
+      stats.record(Phase.TOTAL, System.nanoTime() - queryStart);
+    }
+  }
+}
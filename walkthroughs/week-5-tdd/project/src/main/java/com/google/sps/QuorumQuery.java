@@ -0,0 +1,116 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Finds the times when at least a quorum of the attendees are free for the whole meeting. A meeting
+ * starting at minute {@code t} runs over {@code [t, t + duration)}, so a busy time {@code [a, b)}
+ * rules out every start in {@code (a - duration, b)}. The number of busy attendees is kept per
+ * start time in a difference array, so the cost is linear in the number of events plus the minutes
+ * in a day, whatever the quorum is.
+ *
+ * <p>Each returned range is made of the starts where the quorum is met, so every meeting inside it
+ * has enough attendees, although the attendees who are free may differ from one meeting to another.
+ */
+final class QuorumQuery {
+  private static final int MINUTES = TimeRange.WHOLE_DAY.duration();
+
+  private QuorumQuery() {}
+
+  /**
+   * Return time ranges when at least {@code request.getQuorum()} of the required attendees are
+   * free.
+   *
+   * @param schedules The busy times of every attendee in the booking system.
+   * @param request The specific meeting request that the user is making.
+   * @return The list of available event times.
+   */
+  static List<TimeRange> query(ScheduleSource schedules, MeetingRequest request) {
+    Collection<String> attendees = request.getAttendees();
+    int maxBusy = attendees.size() - request.getQuorum();
+
+    List<TimeRange> availableTimes = new ArrayList<>();
+    long duration = request.getDuration();
+    if (maxBusy < 0 || duration > MINUTES) {
+      return availableTimes;
+    }
+
+    // A meeting without any duration still needs its starting minute to be free.
+    int length = (int) Math.max(duration, 1);
+    // changes[t] holds how many more attendees are busy during a meeting starting at t than during
+    // one starting just before it. The last possible start is MINUTES - length.
+    int lastStart = MINUTES - length;
+    int[] changes = new int[lastStart + 2];
+    for (String attendee : attendees) {
+      // Each attendee's times are sorted by start, so times whose ruled out starts overlap can be
+      // merged on the fly to count every attendee at most once per start.
+      int blockStart = -1;
+      int blockEnd = -1;
+      for (TimeRange time : schedules.getTimes(attendee)) {
+        int start = clamp(time.start());
+        int end = clamp(time.end());
+        if (start >= end) {
+          continue;
+        }
+
+        if (blockEnd < 0 || start - length + 1 > blockEnd) {
+          addBlock(changes, blockStart, blockEnd, length);
+          blockStart = start;
+          blockEnd = end;
+        } else {
+          blockEnd = Math.max(blockEnd, end);
+        }
+      }
+      addBlock(changes, blockStart, blockEnd, length);
+    }
+
+    // Each run of starts that meet the quorum holds meetings from its first start to the end of a
+    // meeting at its last start.
+    int busy = 0;
+    int runStart = -1;
+    for (int start = 0; start <= lastStart + 1; start++) {
+      busy += changes[start];
+      boolean free = start <= lastStart && busy <= maxBusy;
+      if (free && runStart < 0) {
+        runStart = start;
+      } else if (!free && runStart >= 0) {
+        availableTimes.add(TimeRange.fromStartEnd(runStart, start - 1 + length, false));
+        runStart = -1;
+      }
+    }
+    return availableTimes;
+  }
+
+  /** Counts one more busy attendee for every start whose meeting overlaps {@code [start, end)}. */
+  private static void addBlock(int[] changes, int start, int end, int length) {
+    if (start < 0) {
+      return;
+    }
+    int first = Math.max(0, start - length + 1);
+    int last = Math.min(changes.length - 1, end);
+    if (first < last) {
+      changes[first]++;
+      changes[last]--;
+    }
+  }
+
+  private static int clamp(int minute) {
+    return Math.max(TimeRange.START_OF_DAY, Math.min(minute, MINUTES));
+  }
+}
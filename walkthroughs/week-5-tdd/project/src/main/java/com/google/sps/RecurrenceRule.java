@@ -0,0 +1,113 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+
+/**
+ * Which days a {@code RecurringEvent} happens on: every day, every few days, or on chosen days of
+ * the week, optionally stopping after a last day. Days are counted since the Unix epoch, as in
+ * {@code EpochRange}. Rules are read-only; {@code until} returns a new rule.
+ */
+public final class RecurrenceRule {
+  // The Unix epoch fell on a Thursday, which is DayOfWeek value 4.
+  private static final int EPOCH_DAY_OF_WEEK = DayOfWeek.THURSDAY.getValue() - 1;
+
+  // Occurrences are this many days apart, or 0 if they fall on the days of the week in weekdays.
+  private final int intervalDays;
+  // Bit d - 1 is set for each DayOfWeek value d that the event happens on.
+  private final int weekdays;
+  private final long lastDay;
+
+  private RecurrenceRule(int intervalDays, int weekdays, long lastDay) {
+    this.intervalDays = intervalDays;
+    this.weekdays = weekdays;
+    this.lastDay = lastDay;
+  }
+
+  /**
+   * Returns a rule for an event that happens every day.
+   */
+  public static RecurrenceRule daily() {
+    return everyDays(1);
+  }
+
+  /**
+   * Returns a rule for an event that happens every {@code days} days, starting with its first day.
+   */
+  public static RecurrenceRule everyDays(int days) {
+    if (days <= 0) {
+      throw new IllegalArgumentException("days must be positive");
+    }
+    return new RecurrenceRule(days, 0, Long.MAX_VALUE);
+  }
+
+  /**
+   * Returns a rule for an event that happens every week on each of {@code days}.
+   */
+  public static RecurrenceRule weekly(DayOfWeek... days) {
+    if (days.length == 0) {
+      throw new IllegalArgumentException("days cannot be empty");
+    }
+
+    int weekdays = 0;
+    for (DayOfWeek day : days) {
+      weekdays |= 1 << (day.getValue() - 1);
+    }
+    return new RecurrenceRule(0, weekdays, Long.MAX_VALUE);
+  }
+
+  /**
+   * Returns the same rule, except that the event stops after {@code lastDay}.
+   */
+  public RecurrenceRule until(long lastDay) {
+    return new RecurrenceRule(intervalDays, weekdays, lastDay);
+  }
+
+  /**
+   * Returns the last day the event can happen on, or {@code Long.MAX_VALUE} if it never stops.
+   */
+  public long getLastDay() {
+    return lastDay;
+  }
+
+  /**
+   * Checks whether an event that first happened on {@code firstDay} happens on {@code day} too.
+   */
+  public boolean occursOn(long day, long firstDay) {
+    if (day < firstDay || day > lastDay) {
+      return false;
+    }
+    if (intervalDays > 0) {
+      return (day - firstDay) % intervalDays == 0;
+    }
+    return (weekdays & (1 << Math.floorMod(day + EPOCH_DAY_OF_WEEK, 7))) != 0;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof RecurrenceRule)) {
+      return false;
+    }
+    RecurrenceRule rule = (RecurrenceRule) other;
+    return intervalDays == rule.intervalDays && weekdays == rule.weekdays && lastDay == rule.lastDay;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * intervalDays + weekdays) + Long.hashCode(lastDay);
+  }
+}
@@ -0,0 +1,141 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * RecurringEvent is the container class for a meeting that repeats, such as a daily standup. It is
+ * stored once, however many times it happens: occurrences are only worked out for the days being
+ * queried. Every occurrence is at the same time of day and has the same length as the first, which
+ * may run past midnight. Events are considered read-only.
+ */
+public final class RecurringEvent {
+  private final String title;
+  private final EpochRange first;
+  private final RecurrenceRule rule;
+  // The ids of the attendees in {@code AttendeeDictionary.getDefault()}, sorted and distinct, as in
+  // {@code Event}.
+  private final int[] attendeeIds;
+
+  // The day of the first occurrence, and how far into that day it starts.
+  private final long firstDay;
+  private final long startOfDayOffset;
+
+  /**
+   * Creates a new recurring event.
+   *
+   * @param title The human-readable name for the event. Must be non-null.
+   * @param first The time of the first occurrence. Must be non-null. The event happens at the same
+   *     time of day on every later day that {@code rule} picks, including the first day only if
+   *     {@code rule} picks it.
+   * @param rule The days the event happens on. Must be non-null.
+   * @param attendees The collection of people attending the event. Must be non-null.
+   */
+  public RecurringEvent(String title, EpochRange first, RecurrenceRule rule, Collection<String> attendees) {
+    if (title == null) {
+      throw new IllegalArgumentException("title cannot be null");
+    }
+
+    if (first == null) {
+      throw new IllegalArgumentException("first cannot be null");
+    }
+
+    if (rule == null) {
+      throw new IllegalArgumentException("rule cannot be null");
+    }
+
+    if (attendees == null) {
+      throw new IllegalArgumentException("attendees cannot be null. Use empty array instead.");
+    }
+
+    this.title = title;
+    this.first = first;
+    this.rule = rule;
+    this.attendeeIds = AttendeeDictionary.getDefault().internAll(attendees);
+    this.firstDay = EpochRange.dayOf(first.start());
+    this.startOfDayOffset = first.start() - EpochRange.startOfDay(firstDay);
+  }
+
+  /**
+   * Returns the human-readable name for this event.
+   */
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Returns the {@code EpochRange} of the first occurrence.
+   */
+  public EpochRange getFirst() {
+    return first;
+  }
+
+  /**
+   * Returns the rule for which days this event happens on.
+   */
+  public RecurrenceRule getRule() {
+    return rule;
+  }
+
+  /**
+   * Returns a read-only set of required attendees for this event.
+   */
+  public Set<String> getAttendees() {
+    return new AttendeeSet(attendeeIds);
+  }
+
+  /**
+   * Returns how many days before {@code day} an occurrence can start and still be going on during
+   * {@code day}, which is 0 unless occurrences run past midnight.
+   */
+  long getOverhangDays() {
+    return first.duration() == 0 ? 0 : (startOfDayOffset + first.duration() - 1) / EpochRange.MINUTES_PER_DAY;
+  }
+
+  /**
+   * Checks whether an occurrence starts on {@code day}.
+   */
+  boolean occursOn(long day) {
+    return rule.occursOn(day, firstDay);
+  }
+
+  /**
+   * Returns the start, in epoch minutes, of the occurrence that would start on {@code day}.
+   */
+  long startOn(long day) {
+    return EpochRange.startOfDay(day) + startOfDayOffset;
+  }
+
+  @Override
+  public int hashCode() {
+    return title.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof RecurringEvent && equals(this, (RecurringEvent) other);
+  }
+
+  private static boolean equals(RecurringEvent a, RecurringEvent b) {
+    return a.title.equals(b.title)
+        && a.first.equals(b.first)
+        && a.rule.equals(b.rule)
+        && Arrays.equals(a.attendeeIds, b.attendeeIds);
+  }
+}
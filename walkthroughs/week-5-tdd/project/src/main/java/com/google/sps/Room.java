@@ -0,0 +1,97 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Room is the container class for a meeting room that can be booked along with the attendees. It
+ * has a fixed number of seats and is busy at its own times, like an attendee. Rooms are considered
+ * read-only.
+ */
+public final class Room {
+  private final String name;
+  private final int capacity;
+  private final List<TimeRange> busyTimes;
+
+  /**
+   * Creates a new room.
+   *
+   * @param name The human-readable name for the room. Must be non-null.
+   * @param capacity The number of seats in the room. Must not be negative.
+   * @param busyTimes The times the room is already booked. Must be non-null.
+   */
+  public Room(String name, int capacity, Collection<TimeRange> busyTimes) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity cannot be negative");
+    }
+
+    if (busyTimes == null) {
+      throw new IllegalArgumentException("busyTimes cannot be null. Use empty array instead.");
+    }
+
+    this.name = name;
+    this.capacity = capacity;
+    this.busyTimes = Collections.unmodifiableList(new ArrayList<>(busyTimes));
+  }
+
+  /**
+   * Returns the human-readable name for this room.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the number of seats in this room.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns a read-only list of the times this room is already booked.
+   */
+  public List<TimeRange> getBusyTimes() {
+    return busyTimes;
+  }
+
+  @Override
+  public int hashCode() {
+    return name.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof Room && equals(this, (Room) other);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Room: %s (%d seats)", name, capacity);
+  }
+
+  private static boolean equals(Room a, Room b) {
+    return a.name.equals(b.name) && a.capacity == b.capacity && a.busyTimes.equals(b.busyTimes);
+  }
+}
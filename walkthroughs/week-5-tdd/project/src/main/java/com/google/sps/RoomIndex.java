@@ -0,0 +1,232 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds free rooms for the times that suit a meeting's attendees. Every room's free minutes are
+ * kept as a bitmap, and rooms are grouped into tiers by capacity. Each tier also keeps the minutes
+ * when any of its rooms is free, and when any room in it or a larger tier is free. A meeting that
+ * cannot fit in the free minutes of a whole tier cannot fit in any of its rooms, so most times and
+ * tiers are ruled out a word at a time without looking at single rooms. Indexes are read-only and
+ * safe to share between threads.
+ */
+public final class RoomIndex {
+  // Smallest rooms first, so the first room that fits is also the smallest.
+  private static final Comparator<Room> BY_CAPACITY =
+      Comparator.comparingInt(Room::getCapacity).thenComparing(Room::getName);
+
+  private final Room[] rooms;
+  private final long[][] roomFree;
+
+  // The capacity of each tier, in increasing order, and the index of its first room. The entry
+  // after the last tier is the number of rooms.
+  private final int[] tierCapacities;
+  private final int[] tierStarts;
+
+  // The minutes when some room in each tier is free, and when some room in it or a larger tier is.
+  private final long[][] tierFree;
+  private final long[][] freeAtOrAbove;
+
+  /**
+   * Creates an index of {@code rooms}.
+   *
+   * @param rooms The rooms that can be booked. Must be non-null.
+   */
+  public RoomIndex(Collection<Room> rooms) {
+    if (rooms == null) {
+      throw new IllegalArgumentException("rooms cannot be null. Use empty collection instead.");
+    }
+
+    this.rooms = rooms.toArray(new Room[0]);
+    Arrays.sort(this.rooms, BY_CAPACITY);
+
+    roomFree = new long[this.rooms.length][];
+    List<Integer> capacities = new ArrayList<>();
+    List<Integer> starts = new ArrayList<>();
+    for (int i = 0; i < this.rooms.length; i++) {
+      roomFree[i] = freeMinutes(this.rooms[i]);
+      if (i == 0 || this.rooms[i].getCapacity() != this.rooms[i - 1].getCapacity()) {
+        capacities.add(this.rooms[i].getCapacity());
+        starts.add(i);
+      }
+    }
+    starts.add(this.rooms.length);
+
+    tierCapacities = capacities.stream().mapToInt(Integer::intValue).toArray();
+    tierStarts = starts.stream().mapToInt(Integer::intValue).toArray();
+    tierFree = new long[tierCapacities.length][];
+    freeAtOrAbove = new long[tierCapacities.length][];
+    for (int tier = tierCapacities.length - 1; tier >= 0; tier--) {
+      tierFree[tier] = new long[MinuteMask.WORDS];
+      for (int room = tierStarts[tier]; room < tierStarts[tier + 1]; room++) {
+        or(tierFree[tier], roomFree[room]);
+      }
+      freeAtOrAbove[tier] = tierFree[tier].clone();
+      if (tier + 1 < tierCapacities.length) {
+        or(freeAtOrAbove[tier], freeAtOrAbove[tier + 1]);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of rooms in the index.
+   */
+  public int size() {
+    return rooms.length;
+  }
+
+  /**
+   * Pair the parts of {@code availableTimes} that are at least {@code duration} minutes long with a
+   * free room of at least {@code minCapacity} seats. Times are scanned from the start of the day.
+   * At each point, the room that is free soonest for the whole meeting is picked, choosing the
+   * smallest room if several are free at once. The slot then runs for as long as that room stays
+   * free, and the scan carries on from its end.
+   *
+   * @param availableTimes The times when the attendees are free, sorted by start and not overlapping.
+   * @param duration The duration of the meeting in minutes.
+   * @param minCapacity The fewest seats the room needs.
+   * @return The slots, in order.
+   */
+  public List<RoomSlot> findSlots(Collection<TimeRange> availableTimes, long duration, int minCapacity) {
+    List<RoomSlot> slots = new ArrayList<>();
+    int firstTier = firstTierWithCapacity(minCapacity);
+    if (firstTier == tierCapacities.length) {
+      return slots;
+    }
+
+    for (TimeRange availableTime : availableTimes) {
+      int position = Math.max(availableTime.start(), TimeRange.START_OF_DAY);
+      int end = Math.min(availableTime.end(), MinuteMask.MINUTES);
+      while (position < end) {
+        // Find where some big enough room is free for long enough, without looking at each room.
+        int runStart = findRun(freeAtOrAbove[firstTier], position, end, duration);
+        if (runStart < 0) {
+          break;
+        }
+        int runEnd = Math.min(MinuteMask.nextClearBit(freeAtOrAbove[firstTier], runStart), end);
+
+        int room = findEarliestRoom(firstTier, runStart, runEnd, duration);
+        if (room < 0) {
+          // Different rooms are free for different parts of the run, but none for long enough.
+          position = runEnd;
+          continue;
+        }
+
+        int slotStart = findRun(roomFree[room], runStart, runEnd, duration);
+        int slotEnd = Math.min(MinuteMask.nextClearBit(roomFree[room], slotStart), end);
+        slots.add(new RoomSlot(TimeRange.fromStartEnd(slotStart, slotEnd, false), rooms[room]));
+        position = slotEnd;
+      }
+    }
+    return slots;
+  }
+
+  /**
+   * Returns the room, from {@code firstTier} upwards, that is free soonest for {@code duration}
+   * minutes within {@code [from, to)}, or -1 if there is none. Ties go to the smaller room.
+   */
+  private int findEarliestRoom(int firstTier, int from, int to, long duration) {
+    int bestRoom = -1;
+    int bestStart = Integer.MAX_VALUE;
+    for (int tier = firstTier; tier < tierCapacities.length; tier++) {
+      if (findRun(tierFree[tier], from, to, duration) < 0) {
+        // No room in this tier is free for long enough, so skip all of them.
+        continue;
+      }
+
+      for (int room = tierStarts[tier]; room < tierStarts[tier + 1]; room++) {
+        // Only a room that is free before the best one so far could replace it. Like findRun, a
+        // meeting without any duration still needs its first minute free.
+        int limit = bestRoom < 0 ? to : (int) Math.min(to, bestStart - 1 + Math.max(duration, 1));
+        int start = findRun(roomFree[room], from, limit, duration);
+        if (start >= 0 && start < bestStart) {
+          bestRoom = room;
+          bestStart = start;
+          if (start == from) {
+            // Nothing can be free sooner, and later rooms are larger.
+            return bestRoom;
+          }
+        }
+      }
+    }
+    return bestRoom;
+  }
+
+  /**
+   * Returns the first tier whose rooms have at least {@code minCapacity} seats.
+   */
+  private int firstTierWithCapacity(int minCapacity) {
+    int index = Arrays.binarySearch(tierCapacities, minCapacity);
+    return index >= 0 ? index : -index - 1;
+  }
+
+  /**
+   * Returns the start of the first run of at least {@code duration} set bits within
+   * {@code [from, to)}, or -1 if there is none.
+   */
+  private static int findRun(long[] free, int from, int to, long duration) {
+    int position = from;
+    while (position < to) {
+      int start = MinuteMask.nextSetBit(free, position);
+      if (start >= to) {
+        return -1;
+      }
+      int end = Math.min(MinuteMask.nextClearBit(free, start), to);
+      if (end - start >= duration) {
+        return start;
+      }
+      position = end;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns a bitmap with a bit set for every minute of the day that {@code room} is not booked.
+   */
+  private static long[] freeMinutes(Room room) {
+    long[] busy = new long[MinuteMask.WORDS];
+    for (TimeRange time : room.getBusyTimes()) {
+      int start = Math.max(time.start(), TimeRange.START_OF_DAY);
+      int end = Math.min(time.end(), MinuteMask.MINUTES);
+      if (start < end) {
+        MinuteMask.setRange(busy, start, end);
+      }
+    }
+
+    long[] free = new long[MinuteMask.WORDS];
+    for (int i = 0; i < free.length; i++) {
+      free[i] = ~busy[i];
+    }
+    // Clear the bits past the end of the day.
+    free[MinuteMask.MINUTES >>> 6] &= ~(-1L << MinuteMask.MINUTES);
+    for (int i = (MinuteMask.MINUTES >>> 6) + 1; i < free.length; i++) {
+      free[i] = 0;
+    }
+    return free;
+  }
+
+  private static void or(long[] words, long[] other) {
+    for (int i = 0; i < words.length; i++) {
+      words[i] |= other[i];
+    }
+  }
+}
@@ -0,0 +1,44 @@
+// Copyright 2019 Google LLC
+//
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public final class Rooms {
+  private static final int TIME_0900 = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000 = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100 = TimeRange.getTimeInMinutes(11, 0);
+  private static final int TIME_1200 = TimeRange.getTimeInMinutes(12, 0);
+  private static final int TIME_1300 = TimeRange.getTimeInMinutes(13, 0);
+  private static final int TIME_1400 = TimeRange.getTimeInMinutes(14, 0);
+  private static final int TIME_1500 = TimeRange.getTimeInMinutes(15, 0);
+  private static final int TIME_1700 = TimeRange.getTimeInMinutes(17, 0);
+
+  public static final Room[] rooms = {
+      new Room("Phone Booth", 2, Collections.<TimeRange>emptyList()),
+      new Room("Huddle Room", 4,
+          Arrays.asList(TimeRange.fromStartEnd(TIME_0900, TIME_1000, false),
+              TimeRange.fromStartEnd(TIME_1300, TIME_1400, false))),
+      new Room("Meeting Room", 8,
+          Arrays.asList(TimeRange.fromStartEnd(TIME_1000, TIME_1200, false),
+              TimeRange.fromStartEnd(TIME_1500, TIME_1700, false))),
+      new Room("Board Room", 16, Arrays.asList(TimeRange.fromStartEnd(TIME_1100, TIME_1300, false))),
+  };
+
+  private Rooms() {
+    // Disallow instances.
+  }
+}
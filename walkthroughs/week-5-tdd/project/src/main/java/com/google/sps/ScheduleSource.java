@@ -0,0 +1,38 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.List;
+
+/**
+ * A source of the times when each attendee is busy, such as an {@code EventIndex} built from a
+ * fixed collection of events or a {@code CalendarStore} that changes as events are booked.
+ */
+public interface ScheduleSource {
+  /**
+   * Returns a read-only list of the times when {@code attendee} is busy, sorted by start time.
+   * Attendees without any events have an empty list.
+   */
+  List<TimeRange> getTimes(String attendee);
+
+  /**
+   * Returns a number that changes whenever any busy time changes, so that answers computed from
+   * this source can be checked before they are reused. Sources that never change always return the
+   * same version.
+   */
+  default long getVersion() {
+    return 0;
+  }
+}
@@ -0,0 +1,243 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily finds the free times around busy ranges. Ranges are merged and gaps are checked only as
+ * far as the caller reads, so asking for the first few options does not scan the whole day. The
+ * busy ranges come either from an array packed by {@code Intervals} or straight from each
+ * attendee's sorted times, which are merged with a min-heap holding the next time of each attendee
+ * so that times after the last option read are never visited. The options match
+ * {@code Intervals.addAvailableTimes}.
+ */
+final class SlotIterator implements Iterator<TimeRange> {
+  private final Ranges ranges;
+  private final long duration;
+
+  // The end of the last merged block, if any.
+  private int previousEnd;
+  private boolean hasPrevious;
+
+  // The next option to return, found ahead of time by {@code hasNext}.
+  private TimeRange next;
+  private boolean finished;
+
+  /**
+   * @param ranges Busy ranges packed by {@code Intervals}, sorted by start.
+   * @param count The number of ranges at the front of {@code ranges}.
+   * @param duration The duration of the requested meeting in minutes.
+   */
+  SlotIterator(long[] ranges, int count, long duration) {
+    this(new PackedRanges(ranges, count), duration);
+  }
+
+  /**
+   * @param sortedSchedules The busy times of each attendee, each sorted by start time.
+   * @param duration The duration of the requested meeting in minutes.
+   */
+  SlotIterator(List<List<TimeRange>> sortedSchedules, long duration) {
+    this(new MergedSchedules(sortedSchedules), duration);
+  }
+
+  private SlotIterator(Ranges ranges, long duration) {
+    this.ranges = ranges;
+    this.duration = duration;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null && !finished) {
+      next = findNext();
+    }
+    return next != null;
+  }
+
+  @Override
+  public TimeRange next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    TimeRange result = next;
+    next = null;
+    return result;
+  }
+
+  private TimeRange findNext() {
+    if (!hasPrevious && !ranges.hasNext()) {
+      finished = true;
+      return duration <= TimeRange.WHOLE_DAY.duration() ? TimeRange.WHOLE_DAY : null;
+    }
+
+    while (ranges.hasNext()) {
+      // Read ahead until the current block is complete.
+      long block = ranges.next();
+      while (ranges.hasNext() && Intervals.overlaps(block, ranges.peek())) {
+        block = Intervals.pack(
+            Intervals.start(block), Math.max(Intervals.end(block), Intervals.end(ranges.next())));
+      }
+
+      int blockStart = Intervals.start(block);
+      TimeRange option = null;
+      if (!hasPrevious) {
+        if (blockStart != TimeRange.START_OF_DAY && blockStart - TimeRange.START_OF_DAY >= duration) {
+          option = TimeRange.fromStartEnd(TimeRange.START_OF_DAY, blockStart, false);
+        }
+      } else if (blockStart - previousEnd >= duration) {
+        option = TimeRange.fromStartEnd(previousEnd, blockStart, false);
+      }
+
+      previousEnd = Intervals.end(block);
+      hasPrevious = true;
+      if (option != null) {
+        return option;
+      }
+    }
+
+    finished = true;
+    if (previousEnd - 1 != TimeRange.END_OF_DAY && TimeRange.END_OF_DAY - previousEnd >= duration) {
+      return TimeRange.fromStartEnd(previousEnd, TimeRange.END_OF_DAY, true);
+    }
+    return null;
+  }
+
+  /**
+   * Busy ranges packed by {@code Intervals}, read in order of start.
+   */
+  private interface Ranges {
+    boolean hasNext();
+
+    /** Returns the next range without reading it. */
+    long peek();
+
+    long next();
+  }
+
+  private static final class PackedRanges implements Ranges {
+    private final long[] ranges;
+    private final int count;
+    private int index;
+
+    PackedRanges(long[] ranges, int count) {
+      this.ranges = ranges;
+      this.count = count;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < count;
+    }
+
+    @Override
+    public long peek() {
+      return ranges[index];
+    }
+
+    @Override
+    public long next() {
+      return ranges[index++];
+    }
+  }
+
+  /**
+   * The times of several attendees in order of start. The heap holds the index of each schedule
+   * with times left, ordered by the start of its next time, so reading a time costs O(log k) for k
+   * attendees and building the heap costs O(k).
+   */
+  private static final class MergedSchedules implements Ranges {
+    private final List<List<TimeRange>> sortedSchedules;
+    private final int[] positions;
+    private final int[] heap;
+    private int heapSize;
+
+    MergedSchedules(List<List<TimeRange>> sortedSchedules) {
+      this.sortedSchedules = sortedSchedules;
+      int scheduleCount = sortedSchedules.size();
+      positions = new int[scheduleCount];
+      heap = new int[scheduleCount];
+      for (int i = 0; i < scheduleCount; i++) {
+        if (!sortedSchedules.get(i).isEmpty()) {
+          heap[heapSize++] = i;
+        }
+      }
+      for (int i = heapSize / 2 - 1; i >= 0; i--) {
+        siftDown(i);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return heapSize > 0;
+    }
+
+    @Override
+    public long peek() {
+      int schedule = heap[0];
+      return Intervals.pack(sortedSchedules.get(schedule).get(positions[schedule]));
+    }
+
+    @Override
+    public long next() {
+      int schedule = heap[0];
+      List<TimeRange> times = sortedSchedules.get(schedule);
+      long range = Intervals.pack(times.get(positions[schedule]));
+
+      positions[schedule]++;
+      if (positions[schedule] == times.size()) {
+        heap[0] = heap[--heapSize];
+      }
+      if (heapSize > 0) {
+        siftDown(0);
+      }
+      return range;
+    }
+
+    /**
+     * Restores the heap order below {@code index}, comparing schedules by the start of their next
+     * time.
+     */
+    private void siftDown(int index) {
+      int schedule = heap[index];
+      int start = nextStart(schedule);
+      while (true) {
+        int child = 2 * index + 1;
+        if (child >= heapSize) {
+          break;
+        }
+        int childStart = nextStart(heap[child]);
+        if (child + 1 < heapSize) {
+          int siblingStart = nextStart(heap[child + 1]);
+          if (siblingStart < childStart) {
+            child++;
+            childStart = siblingStart;
+          }
+        }
+        if (start <= childStart) {
+          break;
+        }
+        heap[index] = heap[child];
+        index = child;
+      }
+      heap[index] = schedule;
+    }
+
+    private int nextStart(int schedule) {
+      return sortedSchedules.get(schedule).get(positions[schedule]).start();
+    }
+  }
+}
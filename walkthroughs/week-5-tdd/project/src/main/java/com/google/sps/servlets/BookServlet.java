@@ -0,0 +1,79 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.sps.Event;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import java.io.IOException;
+import java.util.Optional;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Books the earliest time that suits a meeting request, in one step. The request body is a meeting
+ * request in the same JSON as {@code /query}, and the optional {@code title} parameter names the
+ * event. The response is the booked event, or 409 Conflict if no time suits the request.
+ */
+@WebServlet("/book")
+public class BookServlet extends HttpServlet {
+  private static final String DEFAULT_TITLE = "Meeting";
+
+  // The codec holds no state, so it is shared across requests.
+  private static final MeetingJsonCodec CODEC = new MeetingJsonCodec();
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    if (CalendarData.STORE == null) {
+      response.sendError(
+          HttpServletResponse.SC_SERVICE_UNAVAILABLE, "This server is serving a read-only calendar.");
+      return;
+    }
+
+    // Convert the JSON to an instance of MeetingRequest.
+    MeetingRequest meetingRequest;
+    try {
+      meetingRequest = CODEC.readRequest(request.getReader());
+    } catch (MeetingJsonCodec.InvalidRequestException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+    if (meetingRequest.hasQuorum()) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Quorum requests cannot be booked.");
+      return;
+    }
+
+    String title = request.getParameter("title");
+    if (title == null || title.isEmpty()) {
+      title = DEFAULT_TITLE;
+    }
+
+    // Find the earliest time and book it before anyone else can.
+    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
+    Optional<Event> booked = findMeetingQuery.reserve(CalendarData.STORE, meetingRequest, title);
+    if (!booked.isPresent()) {
+      response.sendError(HttpServletResponse.SC_CONFLICT, "No time suits every required attendee.");
+      return;
+    }
+
+    // Write the booked event as JSON straight into the response
+    response.setContentType("application/json");
+    response.setCharacterEncoding("UTF-8");
+    CODEC.writeEvent(booked.get(), response.getWriter());
+  }
+}
@@ -0,0 +1,81 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.sps.CalendarSnapshot;
+import com.google.sps.Event;
+import com.google.sps.EventStore;
+import com.google.sps.Events;
+import com.google.sps.RoomIndex;
+import com.google.sps.Rooms;
+import com.google.sps.ScheduleSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The calendar that every servlet answers from, loaded once when the server starts. By default
+ * this is an {@code EventStore} that starts with the sample events in {@code Events} and takes
+ * bookings. Set the {@code calendar.snapshot} system property to the path of a
+ * {@code CalendarSnapshot} to serve a large read-only calendar instead; bookings are then refused.
+ * Meetings that need a room are matched with the sample rooms in {@code Rooms}.
+ */
+final class CalendarData {
+  static final String SNAPSHOT_PROPERTY = "calendar.snapshot";
+
+  // The read-only calendar named by SNAPSHOT_PROPERTY, or null if there is none.
+  private static final CalendarSnapshot SNAPSHOT = openSnapshot();
+
+  // The bookable calendar shared by every servlet, or null if a read-only calendar is served.
+  static final EventStore STORE =
+      SNAPSHOT == null ? new EventStore(Arrays.asList(Events.events)) : null;
+
+  // The rooms that meetings can be matched with, shared by every servlet.
+  static final RoomIndex ROOMS = new RoomIndex(Arrays.asList(Rooms.rooms));
+
+  private CalendarData() {}
+
+  /**
+   * Returns the latest busy times. Each call may return a newer snapshot, so read it once per
+   * request.
+   */
+  static ScheduleSource schedules() {
+    return SNAPSHOT != null ? SNAPSHOT : STORE.snapshot();
+  }
+
+  /**
+   * Returns the events to show on the page.
+   */
+  static Collection<Event> events() {
+    // Snapshot files do not keep event titles, so only the sample events can be shown for them.
+    return STORE != null ? STORE.snapshot().getEvents() : Arrays.asList(Events.events);
+  }
+
+  private static CalendarSnapshot openSnapshot() {
+    String snapshot = System.getProperty(SNAPSHOT_PROPERTY);
+    if (snapshot == null) {
+      return null;
+    }
+
+    try {
+      return CalendarSnapshot.open(Paths.get(snapshot));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not open calendar snapshot " + snapshot, e);
+    }
+  }
+}
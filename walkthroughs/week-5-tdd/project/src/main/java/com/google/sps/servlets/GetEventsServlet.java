@@ -14,8 +14,6 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
-import com.google.gson.Gson;
 import java.io.IOException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
@@ -24,13 +22,15 @@ import javax.servlet.http.HttpServletResponse;
 
 @WebServlet("/get-events")
 public class GetEventsServlet extends HttpServlet {
+  // The codec holds no state, so it is shared across requests.
+  private static final MeetingJsonCodec CODEC = new MeetingJsonCodec();
+
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
-    String jsonResponse = gson.toJson(Events.events);
-
-    // Send the JSON back as the response
+    // Events keep attendee ids rather than names, so they are written by the codec, which looks up
+    // the names, rather than by reflection.
     response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    response.setCharacterEncoding("UTF-8");
+    CODEC.writeEvents(CalendarData.events(), response.getWriter());
   }
 }
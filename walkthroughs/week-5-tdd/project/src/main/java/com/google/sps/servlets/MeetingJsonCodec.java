@@ -0,0 +1,317 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.QueryStats;
+import com.google.sps.RoomSlot;
+import com.google.sps.TimeRange;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads meeting requests and writes events and time ranges as JSON, one token at a time. Nothing is looked up
+ * by reflection and no intermediate strings are built, so the answer is written straight to the
+ * response as it is produced. The JSON is the same as Gson's for these classes, which is what
+ * script.js expects. Codecs hold no state, so one instance can be shared by every request.
+ */
+final class MeetingJsonCodec {
+  /**
+   * Reads one meeting request, such as
+   * {@code {"attendees":["Ava"],"optional_attendees":[],"duration":30}}. Missing fields keep their
+   * defaults and unknown fields are ignored.
+   *
+   * @throws InvalidRequestException If the JSON is malformed or holds a value the request does not
+   *     allow, such as a negative duration.
+   */
+  MeetingRequest readRequest(Reader in) throws IOException {
+    JsonReader reader = new JsonReader(in);
+    try {
+      return readRequest(reader);
+    } catch (MalformedJsonException | EOFException | IllegalStateException
+        | IllegalArgumentException e) {
+      throw new InvalidRequestException(e);
+    }
+  }
+
+  /**
+   * Reads a JSON array of meeting requests.
+   *
+   * @throws InvalidRequestException If the JSON is malformed or any request is invalid.
+   */
+  List<MeetingRequest> readRequests(Reader in) throws IOException {
+    JsonReader reader = new JsonReader(in);
+    List<MeetingRequest> requests = new ArrayList<>();
+    try {
+      reader.beginArray();
+      while (reader.hasNext()) {
+        requests.add(readRequest(reader));
+      }
+      reader.endArray();
+    } catch (MalformedJsonException | EOFException | IllegalStateException
+        | IllegalArgumentException e) {
+      throw new InvalidRequestException(e);
+    }
+    return requests;
+  }
+
+  /**
+   * Writes {@code times} as a JSON array of {@code {"start":...,"duration":...}} objects.
+   */
+  void writeTimes(Collection<TimeRange> times, Writer out) throws IOException {
+    JsonWriter writer = new JsonWriter(out);
+    writeTimes(times, writer);
+    writer.flush();
+  }
+
+  /**
+   * Writes {@code slots} as a JSON array of
+   * {@code {"start":...,"duration":...,"room":...,"capacity":...}} objects. Each is a time range
+   * with the name and seats of its room added, so clients that only read times can read it too.
+   */
+  void writeRoomSlots(Collection<RoomSlot> slots, Writer out) throws IOException {
+    JsonWriter writer = new JsonWriter(out);
+    writer.beginArray();
+    for (RoomSlot slot : slots) {
+      writer.beginObject();
+      writer.name("start").value(slot.getWhen().start());
+      writer.name("duration").value(slot.getWhen().duration());
+      writer.name("room").value(slot.getRoom().getName());
+      writer.name("capacity").value(slot.getRoom().getCapacity());
+      writer.endObject();
+    }
+    writer.endArray();
+    writer.flush();
+  }
+
+  /**
+   * Writes a JSON array holding one array of times for each answer.
+   */
+  void writeAnswers(List<Collection<TimeRange>> answers, Writer out) throws IOException {
+    JsonWriter writer = new JsonWriter(out);
+    writer.beginArray();
+    for (Collection<TimeRange> times : answers) {
+      writeTimes(times, writer);
+    }
+    writer.endArray();
+    writer.flush();
+  }
+
+  /**
+   * Writes {@code events} as a JSON array of {@code {"title":...,"when":...,"attendees":[...]}}
+   * objects.
+   */
+  void writeEvents(Collection<Event> events, Writer out) throws IOException {
+    JsonWriter writer = new JsonWriter(out);
+    writer.beginArray();
+    for (Event event : events) {
+      writeEvent(event, writer);
+    }
+    writer.endArray();
+    writer.flush();
+  }
+
+  /**
+   * Writes one event as a {@code {"title":...,"when":...,"attendees":[...]}} object.
+   */
+  void writeEvent(Event event, Writer out) throws IOException {
+    JsonWriter writer = new JsonWriter(out);
+    writeEvent(event, writer);
+    writer.flush();
+  }
+
+  /**
+   * Writes {@code stats} as a JSON object, such as
+   * {@code {"sampleRate":64,"counters":{"eventsScanned":...},"phases":{"findEventTimes":{...}}}}.
+   * Each phase has its count, total and mean time, percentiles, and the non-empty buckets of its
+   * histogram as {@code {"maxNanos":...,"count":...}} objects.
+   */
+  void writeStats(QueryStats stats, Writer out) throws IOException {
+    JsonWriter writer = new JsonWriter(out);
+    writer.beginObject();
+    writer.name("sampleRate").value(stats.getSampleRate());
+
+    writer.name("counters").beginObject();
+    for (QueryStats.Counter counter : QueryStats.Counter.values()) {
+      writer.name(camelCase(counter.name())).value(stats.getCounter(counter));
+    }
+    writer.endObject();
+
+    writer.name("phases").beginObject();
+    for (QueryStats.Phase phase : QueryStats.Phase.values()) {
+      writer.name(camelCase(phase.name()));
+      writePhase(stats, phase, writer);
+    }
+    writer.endObject();
+
+    writer.endObject();
+    writer.flush();
+  }
+
+  private static MeetingRequest readRequest(JsonReader reader) throws IOException {
+    List<String> attendees = new ArrayList<>();
+    List<String> optionalAttendees = new ArrayList<>();
+    long duration = 0;
+    int quorum = 0;
+    int limit = 0;
+    int minCapacity = 0;
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      if (reader.peek() == JsonToken.NULL) {
+        reader.nextNull();
+        continue;
+      }
+
+      switch (name) {
+        case "attendees":
+          readStrings(reader, attendees);
+          break;
+        case "optional_attendees":
+          readStrings(reader, optionalAttendees);
+          break;
+        case "duration":
+          duration = reader.nextLong();
+          break;
+        case "quorum":
+          quorum = reader.nextInt();
+          break;
+        case "limit":
+          limit = reader.nextInt();
+          break;
+        case "min_capacity":
+          minCapacity = reader.nextInt();
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    if (duration < 0) {
+      throw new IllegalArgumentException("duration cannot be negative");
+    }
+    MeetingRequest request = new MeetingRequest(attendees, duration);
+    request.setQuorum(quorum);
+    for (String attendee : optionalAttendees) {
+      request.addOptionalAttendee(attendee);
+    }
+    request.setLimit(limit);
+    request.setMinCapacity(minCapacity);
+    return request;
+  }
+
+  private static void readStrings(JsonReader reader, List<String> strings) throws IOException {
+    reader.beginArray();
+    while (reader.hasNext()) {
+      strings.add(reader.nextString());
+    }
+    reader.endArray();
+  }
+
+  private static void writeTimes(Collection<TimeRange> times, JsonWriter writer) throws IOException {
+    writer.beginArray();
+    for (TimeRange time : times) {
+      writeTime(time, writer);
+    }
+    writer.endArray();
+  }
+
+  private static void writeEvent(Event event, JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("title").value(event.getTitle());
+    writer.name("when");
+    writeTime(event.getWhen(), writer);
+    writer.name("attendees").beginArray();
+    for (String attendee : event.getAttendees()) {
+      writer.value(attendee);
+    }
+    writer.endArray();
+    writer.endObject();
+  }
+
+  private static void writePhase(QueryStats stats, QueryStats.Phase phase, JsonWriter writer)
+      throws IOException {
+    long count = stats.getCount(phase);
+    long totalNanos = stats.getTotalNanos(phase);
+
+    writer.beginObject();
+    writer.name("count").value(count);
+    writer.name("totalNanos").value(totalNanos);
+    writer.name("meanNanos").value(count == 0 ? 0 : totalNanos / count);
+    writer.name("p50Nanos").value(stats.getPercentileNanos(phase, 50));
+    writer.name("p90Nanos").value(stats.getPercentileNanos(phase, 90));
+    writer.name("p99Nanos").value(stats.getPercentileNanos(phase, 99));
+    writer.name("buckets").beginArray();
+    long[] buckets = stats.getBucketCounts(phase);
+    for (int i = 0; i < buckets.length; i++) {
+      if (buckets[i] > 0) {
+        writer.beginObject();
+        writer.name("maxNanos").value(QueryStats.upperBound(i));
+        writer.name("count").value(buckets[i]);
+        writer.endObject();
+      }
+    }
+    writer.endArray();
+    writer.endObject();
+  }
+
+  /**
+   * Turns an enum constant name such as {@code FIND_EVENT_TIMES} into {@code findEventTimes}.
+   */
+  private static String camelCase(String name) {
+    StringBuilder camelCase = new StringBuilder(name.length());
+    boolean upper = false;
+    for (char c : name.toCharArray()) {
+      if (c == '_') {
+        upper = true;
+      } else {
+        camelCase.append(upper ? c : Character.toLowerCase(c));
+        upper = false;
+      }
+    }
+    return camelCase.toString();
+  }
+
+  private static void writeTime(TimeRange time, JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("start").value(time.start());
+    writer.name("duration").value(time.duration());
+    writer.endObject();
+  }
+
+  /**
+   * Thrown when a client sends a meeting request that cannot be read, either because the JSON is
+   * malformed or because it holds a value that is not allowed. Servlets answer it with a 400 and
+   * the message, while other {@code IOException}s still mean the connection failed.
+   */
+  static final class InvalidRequestException extends IOException {
+    InvalidRequestException(Exception cause) {
+      super(cause.getMessage(), cause);
+    }
+  }
+}
@@ -14,38 +14,85 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
 import com.google.sps.FindMeetingQuery;
 import com.google.sps.MeetingRequest;
+import com.google.sps.MergeStrategy;
+import com.google.sps.QueryCache;
+import com.google.sps.QueryStats;
+import com.google.sps.RoomSlot;
 import com.google.sps.TimeRange;
-import com.google.gson.Gson;
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+/**
+ * Finds the possible times for a meeting request. The response is a JSON array of times, or of
+ * times paired with a free room if the request has a {@code min_capacity}.
+ */
 @WebServlet("/query")
 public class QueryServlet extends HttpServlet {
+  // Users ask for the same attendees over and over, so keep recent answers.
+  private static final int MAX_CACHED_QUERIES = 1024;
+
+  // Time one query in every so many, unless the query.stats.sampleRate system property says
+  // otherwise. Set it to 1 to time every query or to 0 to time none.
+  static final String STATS_SAMPLE_RATE_PROPERTY = "query.stats.sampleRate";
+  private static final int DEFAULT_STATS_SAMPLE_RATE = 64;
+
+  // Shared with QueryStatsServlet, which reports them.
+  static final QueryStats QUERY_STATS =
+      new QueryStats(Integer.getInteger(STATS_SAMPLE_RATE_PROPERTY, DEFAULT_STATS_SAMPLE_RATE));
+
+  private static final QueryCache QUERY_CACHE = new QueryCache(
+      CalendarData::schedules,
+      new FindMeetingQuery(MergeStrategy.SORT_THEN_MERGE, null, QUERY_STATS),
+      MAX_CACHED_QUERIES);
+
+  // Answers requests that need a room. Room answers depend on the rooms too, so they are not cached.
+  private static final FindMeetingQuery ROOM_QUERY =
+      new FindMeetingQuery(MergeStrategy.SORT_THEN_MERGE, null, QUERY_STATS);
+
+  // The codec holds no state, so it is shared across requests.
+  private static final MeetingJsonCodec CODEC = new MeetingJsonCodec();
+
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
-
     // Convert the JSON to an instance of MeetingRequest.
-    MeetingRequest meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
+    MeetingRequest meetingRequest;
+    try {
+      meetingRequest = CODEC.readRequest(request.getReader());
+    } catch (MeetingJsonCodec.InvalidRequestException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
 
-    // Find the possible meeting times.
-    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
-    Collection<TimeRange> answer =
-        findMeetingQuery.query(Arrays.asList(Events.events), meetingRequest);
+    if (meetingRequest.getMinCapacity() > 0) {
+      if (meetingRequest.hasQuorum()) {
+        response.sendError(
+            HttpServletResponse.SC_BAD_REQUEST, "Quorum requests cannot be matched with rooms.");
+        return;
+      }
+
+      // Find the possible meeting times, each with a room that has enough seats.
+      List<RoomSlot> slots =
+          ROOM_QUERY.queryWithRoom(CalendarData.schedules(), CalendarData.ROOMS, meetingRequest);
 
-    // Convert the times to JSON
-    String jsonResponse = gson.toJson(answer);
+      response.setContentType("application/json");
+      response.setCharacterEncoding("UTF-8");
+      CODEC.writeRoomSlots(slots, response.getWriter());
+      return;
+    }
+
+    // Find the possible meeting times.
+    Collection<TimeRange> answer = QUERY_CACHE.query(meetingRequest);
 
-    // Send the JSON back as the response
+    // Write the times as JSON straight into the response
     response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    response.setCharacterEncoding("UTF-8");
+    CODEC.writeTimes(answer, response.getWriter());
   }
 }
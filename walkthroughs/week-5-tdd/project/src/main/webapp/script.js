@@ -49,8 +49,12 @@ function updateResultsOnPage(timeRanges) {
 
   // add results to the page
   for (const range of timeRanges) {
-    resultsContainer.innerHTML += '<li>' + timeToString(range.getStartTime()) +
-        ' - ' + timeToString(range.getEndTime()) + '</li>';
+    let text = timeToString(range.getStartTime()) + ' - ' +
+        timeToString(range.getEndTime());
+    if (range.room) {
+      text += ' in ' + range.room;
+    }
+    resultsContainer.innerHTML += '<li>' + text + '</li>';
   }
 }
 
@@ -67,7 +71,10 @@ function queryServer(meetingRequest) {
         // Convert the range from a json representation to our TimeRange class.
         const out = [];
         timeRanges.forEach((range) => {
-          out.push(new TimeRange(range.start, range.duration));
+          const timeRange = new TimeRange(range.start, range.duration);
+          // Requests with a min_capacity also get the room each time is in.
+          timeRange.room = range.room;
+          out.push(timeRange);
         });
         return out;
       });
@@ -92,10 +99,16 @@ function timeToString(totalMinutes) {
  * Request for possible meeting times.
  */
 class MeetingRequest {
-  constructor(duration, attendees, optional_attendees) {
+  constructor(duration, attendees, optional_attendees, quorum = 0, limit = 0, min_capacity = 0) {
     this.duration = duration;
     this.attendees = attendees;
     this.optional_attendees = optional_attendees;
+    // How many attendees must be free. Zero means all of them.
+    this.quorum = quorum;
+    // The most options to return. Zero means all of them.
+    this.limit = limit;
+    // The fewest seats the room needs. Zero means any room.
+    this.min_capacity = min_capacity;
   }
 }
 
@@ -0,0 +1,73 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AttendeeDictionaryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  @Test
+  public void namesGetDenseIds() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+
+    Assert.assertEquals(0, dictionary.intern(PERSON_A));
+    Assert.assertEquals(1, dictionary.intern(PERSON_B));
+    Assert.assertEquals(0, dictionary.intern(PERSON_A));
+    Assert.assertEquals(PERSON_B, dictionary.name(1));
+    Assert.assertEquals(2, dictionary.size());
+  }
+
+  @Test
+  public void internAllIsSortedAndDistinct() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    dictionary.intern(PERSON_A);
+    dictionary.intern(PERSON_B);
+
+    int[] ids = dictionary.internAll(Arrays.asList(PERSON_C, PERSON_B, PERSON_C));
+
+    Assert.assertArrayEquals(new int[] {1, 2}, ids);
+  }
+
+  @Test
+  public void lookupDoesNotIntern() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    dictionary.intern(PERSON_A);
+
+    Assert.assertEquals(-1, dictionary.lookup(PERSON_B));
+    Assert.assertArrayEquals(new int[] {0}, dictionary.lookupAll(Arrays.asList(PERSON_B, PERSON_A)));
+    Assert.assertEquals(1, dictionary.size());
+  }
+
+  @Test
+  public void eventsKeepAttendeeNames() {
+    Event event = new Event("Event 1", TimeRange.fromStartDuration(480, 30), Arrays.asList(PERSON_B, PERSON_A));
+    Event same = new Event("Event 1", TimeRange.fromStartDuration(480, 30), Arrays.asList(PERSON_A, PERSON_B, PERSON_A));
+
+    Assert.assertEquals(2, event.getAttendees().size());
+    Assert.assertTrue(event.getAttendees().contains(PERSON_A));
+    Assert.assertFalse(event.getAttendees().contains(PERSON_C));
+    Assert.assertEquals(event, same);
+  }
+}
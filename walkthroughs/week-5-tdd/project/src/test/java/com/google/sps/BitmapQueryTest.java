@@ -0,0 +1,62 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@code BitmapQuery}. Every engine is compared with the reference by {@code FindMeetingQueryFuzzTest}. */
+@RunWith(JUnit4.class)
+public final class BitmapQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  @Test
+  public void precomputedMasksMatchEvents() {
+    // Events cross the 64-minute word boundaries and one ends at the very end of the day.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(63, 129, false), Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(100, 700, false), Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartEnd(1300, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30);
+
+    BitmapQuery query = new BitmapQuery();
+    Collection<TimeRange> actual = query.query(BitmapQuery.masksByAttendee(events), request);
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.fromStartEnd(0, 63, false),
+        TimeRange.fromStartEnd(700, 1300, false));
+
+    Assert.assertEquals(expected, actual);
+    Assert.assertEquals(new FindMeetingQuery().query(events, request), actual);
+  }
+
+  @Test
+  public void optionalAttendeeBusyAllDayIsIgnored() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(0, 64, false), Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_B)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    request.addOptionalAttendee(PERSON_B);
+
+    Collection<TimeRange> actual = new BitmapQuery().query(events, request);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(64, TimeRange.END_OF_DAY, true)), actual);
+  }
+}
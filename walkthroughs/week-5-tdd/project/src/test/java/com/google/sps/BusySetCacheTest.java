@@ -0,0 +1,103 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BusySetCacheTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final Event MORNING = new Event(
+      "Morning", TimeRange.fromStartEnd(480, 540, false), Arrays.asList(PERSON_A));
+  private static final Event LATE_MORNING = new Event(
+      "Late morning", TimeRange.fromStartEnd(510, 600, false), Arrays.asList(PERSON_B));
+  private static final Event LUNCH = new Event(
+      "Lunch", TimeRange.fromStartEnd(720, 780, false), Arrays.asList(PERSON_C));
+
+  private CalendarStore store;
+  private BusySetCache cache;
+
+  @Before
+  public void setUp() {
+    store = new CalendarStore(Arrays.asList(MORNING, LATE_MORNING, LUNCH));
+    cache = new BusySetCache(store, 8);
+  }
+
+  @Test
+  public void groupsAreCachedInAnyOrder() {
+    cache.getBusyTimes(Arrays.asList(PERSON_A, PERSON_B));
+    cache.getBusyTimes(Arrays.asList(PERSON_B, PERSON_A));
+
+    Assert.assertEquals(1, cache.getMissCount());
+    Assert.assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  public void largerGroupIsBuiltFromSubgroup() {
+    cache.getBusyTimes(Arrays.asList(PERSON_A, PERSON_B));
+    Collection<TimeRange> actual = cache.getBusyTimes(Arrays.asList(PERSON_A, PERSON_B, PERSON_C));
+
+    Assert.assertEquals(1, cache.getSubgroupHitCount());
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(480, 600, false), LUNCH.getWhen()), actual);
+  }
+
+  @Test
+  public void bookingsAreMergedIntoCachedGroups() {
+    cache.getBusyTimes(Arrays.asList(PERSON_A, PERSON_C));
+
+    store.addEvent(new Event(
+        "Overlap", TimeRange.fromStartEnd(530, 730, false), Arrays.asList(PERSON_A)));
+    Collection<TimeRange> actual = cache.getBusyTimes(Arrays.asList(PERSON_A, PERSON_C));
+
+    Assert.assertEquals(1, cache.getHitCount());
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(480, 780, false)), actual);
+  }
+
+  @Test
+  public void cancellationsDropOnlyGroupsTheyTouch() {
+    cache.getBusyTimes(Arrays.asList(PERSON_A, PERSON_B));
+    cache.getBusyTimes(Arrays.asList(PERSON_C));
+
+    store.removeEvent(MORNING);
+
+    Assert.assertEquals(1, cache.size());
+    Assert.assertEquals(
+        Arrays.asList(LATE_MORNING.getWhen()), cache.getBusyTimes(Arrays.asList(PERSON_A, PERSON_B)));
+  }
+
+  @Test
+  public void queryUsesCacheForItsStore() {
+    FindMeetingQuery query = new FindMeetingQuery(MergeStrategy.SORT_THEN_MERGE, cache);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 60);
+
+    Collection<TimeRange> cached = query.query(store, request);
+    query.query(store, request);
+
+    Assert.assertEquals(new FindMeetingQuery().query(store, request), cached);
+    Assert.assertEquals(1, cache.getHitCount());
+  }
+}
@@ -0,0 +1,75 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@code CalendarSnapshot}. */
+@RunWith(JUnit4.class)
+public final class CalendarSnapshotTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Zoë";
+  private static final String PERSON_C = "Person C";
+
+  private static final Event EVENING =
+      new Event("Evening", TimeRange.fromStartDuration(1080, 90), Arrays.asList(PERSON_A));
+  private static final Event MORNING = new Event(
+      "Morning", TimeRange.fromStartDuration(480, 60), Arrays.asList(PERSON_A, PERSON_B));
+  private static final Event NOON =
+      new Event("Noon", TimeRange.fromStartDuration(720, 30), Arrays.asList(PERSON_B));
+
+  @Test
+  public void timesAreReadBackSortedByStart() throws IOException {
+    CalendarSnapshot snapshot = snapshotOf(Arrays.asList(EVENING, NOON, MORNING));
+
+    Assert.assertEquals(3, snapshot.getEventCount());
+    Assert.assertEquals(2, snapshot.getAttendeeCount());
+    Assert.assertEquals(Arrays.asList(MORNING.getWhen(), EVENING.getWhen()), snapshot.getTimes(PERSON_A));
+    Assert.assertEquals(Arrays.asList(MORNING.getWhen(), NOON.getWhen()), snapshot.getTimes(PERSON_B));
+    Assert.assertEquals(Collections.emptyList(), snapshot.getTimes(PERSON_C));
+  }
+
+  @Test(expected = IOException.class)
+  public void otherFilesAreRejected() throws IOException {
+    Path file = Files.createTempFile("calendar", ".snapshot");
+    try {
+      Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+      CalendarSnapshot.open(file);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static CalendarSnapshot snapshotOf(Collection<Event> events) throws IOException {
+    Path file = Files.createTempFile("calendar", ".snapshot");
+    try {
+      CalendarSnapshot.write(events, file);
+      return CalendarSnapshot.open(file);
+    } finally {
+      // Some platforms cannot delete a file while it is mapped, so wait until the tests finish.
+      file.toFile().deleteOnExit();
+    }
+  }
+}
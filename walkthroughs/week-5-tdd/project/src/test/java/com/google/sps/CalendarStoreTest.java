@@ -0,0 +1,97 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@code CalendarStore}. */
+@RunWith(JUnit4.class)
+public final class CalendarStoreTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final Event MORNING =
+      new Event("Morning", TimeRange.fromStartEnd(480, 540, false), Arrays.asList(PERSON_A));
+  private static final Event LATE_MORNING =
+      new Event("Late morning", TimeRange.fromStartEnd(510, 600, false), Arrays.asList(PERSON_A));
+  private static final Event LUNCH = new Event(
+      "Lunch", TimeRange.fromStartEnd(600, 660, false), Arrays.asList(PERSON_A, PERSON_B));
+
+  @Test
+  public void overlappingEventsAreMergedButTouchingEventsAreNot() {
+    CalendarStore store = new CalendarStore(Arrays.asList(LUNCH, MORNING, LATE_MORNING));
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(480, 600, false), LUNCH.getWhen()),
+        store.getTimes(PERSON_A));
+    Assert.assertEquals(Arrays.asList(LUNCH.getWhen()), store.getTimes(PERSON_B));
+  }
+
+  @Test
+  public void removingAnEventSplitsItsBlock() {
+    CalendarStore store = new CalendarStore(Arrays.asList(MORNING, LATE_MORNING, LUNCH));
+
+    Assert.assertTrue(store.removeEvent(LATE_MORNING));
+
+    Assert.assertEquals(Arrays.asList(MORNING.getWhen(), LUNCH.getWhen()), store.getTimes(PERSON_A));
+    Assert.assertEquals(2, store.size());
+  }
+
+  @Test
+  public void removingAnEventThatJoinedOthersSplitsTheirBlock() {
+    Event day = new Event("Day", TimeRange.fromStartEnd(480, 720, false), Arrays.asList(PERSON_A));
+    CalendarStore store = new CalendarStore(Arrays.asList(day, MORNING, LATE_MORNING, LUNCH));
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(480, 720, false)), store.getTimes(PERSON_A));
+
+    store.removeEvent(day);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(480, 600, false), LUNCH.getWhen()),
+        store.getTimes(PERSON_A));
+  }
+
+  @Test
+  public void eventsWithoutDurationAreKeptOutsideBlocks() {
+    Event atEnd = new Event("At end", TimeRange.fromStartDuration(540, 0), Arrays.asList(PERSON_A));
+    Event atStart = new Event("At start", TimeRange.fromStartDuration(480, 0), Arrays.asList(PERSON_A));
+    CalendarStore store = new CalendarStore(Arrays.asList(MORNING, atEnd, atStart));
+
+    // The reference merge absorbs the event at the start of the block but not the one at its end.
+    Assert.assertEquals(
+        MergeStrategy.SORT_THEN_MERGE.merge(Arrays.asList(
+            Arrays.asList(atStart.getWhen(), MORNING.getWhen(), atEnd.getWhen()))),
+        store.getTimes(PERSON_A));
+    Assert.assertEquals(
+        Arrays.asList(MORNING.getWhen(), atEnd.getWhen()), store.getTimes(PERSON_A));
+  }
+
+  @Test
+  public void duplicateEventsAreRemovedOneAtATime() {
+    CalendarStore store = new CalendarStore(Arrays.asList(MORNING, MORNING));
+
+    Assert.assertTrue(store.removeEvent(MORNING));
+    Assert.assertEquals(Arrays.asList(MORNING.getWhen()), store.getTimes(PERSON_A));
+
+    Assert.assertTrue(store.removeEvent(MORNING));
+    Assert.assertEquals(Collections.emptyList(), store.getTimes(PERSON_A));
+    Assert.assertFalse(store.removeEvent(MORNING));
+  }
+}
@@ -0,0 +1,78 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventIndexTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final TimeRange MORNING = TimeRange.fromStartDuration(480, 60);
+  private static final TimeRange NOON = TimeRange.fromStartDuration(720, 30);
+  private static final TimeRange EVENING = TimeRange.fromStartDuration(1080, 90);
+
+  @Test
+  public void timesAreSortedByStart() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", EVENING, Arrays.asList(PERSON_A)),
+        new Event("Event 2", MORNING, Arrays.asList(PERSON_A)),
+        new Event("Event 3", NOON, Arrays.asList(PERSON_A)));
+
+    EventIndex index = new EventIndex(events);
+
+    Assert.assertEquals(Arrays.asList(MORNING, NOON, EVENING), index.getTimes(PERSON_A));
+  }
+
+  @Test
+  public void sharedEventIsIndexedForEveryAttendee() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", MORNING, Arrays.asList(PERSON_A, PERSON_B)),
+        new Event("Event 2", NOON, Arrays.asList(PERSON_B)));
+
+    EventIndex index = new EventIndex(events);
+
+    Assert.assertEquals(Arrays.asList(MORNING), index.getTimes(PERSON_A));
+    Assert.assertEquals(Arrays.asList(MORNING, NOON), index.getTimes(PERSON_B));
+  }
+
+  @Test
+  public void attendeeWithoutEventsHasNoTimes() {
+    EventIndex index = new EventIndex(
+        Arrays.asList(new Event("Event 1", MORNING, Arrays.asList(PERSON_A))));
+
+    Assert.assertEquals(Collections.emptyList(), index.getTimes(PERSON_C));
+    Assert.assertFalse(index.getAttendees().contains(PERSON_C));
+  }
+
+  @Test
+  public void attendeeNeverSeenHasNoTimes() {
+    EventIndex index = new EventIndex(
+        Arrays.asList(new Event("Event 1", MORNING, Arrays.asList(PERSON_A, PERSON_B))));
+
+    Assert.assertEquals(Collections.emptyList(), index.getTimes("Nobody in any event"));
+    Assert.assertEquals(2, index.getAttendees().size());
+  }
+}
@@ -0,0 +1,204 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@code EventStore}. */
+@RunWith(JUnit4.class)
+public final class EventStoreTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final Event MORNING = new Event(
+      "Morning", TimeRange.fromStartDuration(480, 60), Arrays.asList(PERSON_A, PERSON_B));
+  private static final Event LUNCH =
+      new Event("Lunch", TimeRange.fromStartDuration(720, 60), Arrays.asList(PERSON_A));
+
+  @Test
+  public void snapshotsDoNotChange() {
+    EventStore store = new EventStore(Arrays.asList(MORNING));
+    EventStore.Snapshot before = store.snapshot();
+
+    store.add(LUNCH);
+
+    Assert.assertEquals(Arrays.asList(MORNING.getWhen()), before.getTimes(PERSON_A));
+    Assert.assertEquals(
+        Arrays.asList(MORNING.getWhen(), LUNCH.getWhen()), store.snapshot().getTimes(PERSON_A));
+    Assert.assertEquals(1, before.size());
+    Assert.assertEquals(2, store.snapshot().size());
+  }
+
+  @Test
+  public void batchIsPublishedTogether() {
+    EventStore store = new EventStore(Arrays.asList(MORNING));
+    long version = store.snapshot().getVersion();
+
+    EventStore.Snapshot after = store.batch().remove(MORNING).add(LUNCH).commit();
+
+    Assert.assertSame(after, store.snapshot());
+    Assert.assertEquals(version + 1, after.getVersion());
+    Assert.assertEquals(Arrays.asList(LUNCH.getWhen()), after.getTimes(PERSON_A));
+    Assert.assertEquals(Collections.emptyList(), after.getTimes(PERSON_B));
+  }
+
+  @Test
+  public void batchAppliesChangesInOrder() {
+    EventStore store = new EventStore();
+
+    // The first removal has nothing to remove yet, and the second removes the copy just added.
+    EventStore.Snapshot after =
+        store.batch().remove(LUNCH).add(LUNCH).add(MORNING).remove(MORNING).add(LUNCH).commit();
+
+    Assert.assertEquals(2, after.size());
+    Assert.assertEquals(Arrays.asList(LUNCH.getWhen(), LUNCH.getWhen()), after.getTimes(PERSON_A));
+    Assert.assertEquals(Collections.emptyList(), after.getTimes(PERSON_B));
+  }
+
+  @Test
+  public void bulkLoadSortsEverySchedule() {
+    List<Event> events = new ArrayList<>();
+    for (int start = 1000; start >= 0; start -= 10) {
+      events.add(new Event("Event " + start, TimeRange.fromStartDuration(start, 5), Arrays.asList(PERSON_A)));
+    }
+
+    EventStore.Snapshot snapshot = new EventStore(events).snapshot();
+
+    List<TimeRange> times = snapshot.getTimes(PERSON_A);
+    Assert.assertEquals(events.size(), times.size());
+    for (int i = 0; i < times.size(); i++) {
+      Assert.assertEquals(10 * i, times.get(i).start());
+    }
+  }
+
+  @Test
+  public void removingMissingEventHasNoEffect() {
+    EventStore store = new EventStore(Arrays.asList(MORNING));
+    EventStore.Snapshot before = store.snapshot();
+
+    Assert.assertSame(before, store.remove(LUNCH));
+  }
+
+  @Test
+  public void attendeeVersionChangesOnlyWhenBooked() {
+    EventStore store = new EventStore(Arrays.asList(MORNING));
+    long versionA = store.snapshot().getVersion(PERSON_A);
+    long versionB = store.snapshot().getVersion(PERSON_B);
+
+    store.add(LUNCH);
+
+    Assert.assertNotEquals(versionA, store.snapshot().getVersion(PERSON_A));
+    Assert.assertEquals(versionB, store.snapshot().getVersion(PERSON_B));
+  }
+
+  @Test
+  public void concurrentBookingsStayConsistent() throws Exception {
+    int writers = 8;
+    int bookingsPerWriter = 2000;
+    List<String> attendees = new ArrayList<>();
+    for (int i = 0; i < 16; i++) {
+      attendees.add("Stress " + i);
+    }
+
+    EventStore store = new EventStore();
+    ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicBoolean writing = new AtomicBoolean(true);
+    List<Future<int[]>> writerResults = new ArrayList<>();
+    List<Future<?>> readerResults = new ArrayList<>();
+
+    for (int w = 0; w < writers; w++) {
+      int writer = w;
+      writerResults.add(executor.submit(() -> {
+        // Every writer books two events per batch and cancels one of them, tallying how many
+        // events each attendee should be left with.
+        Random random = new Random(writer);
+        int[] expected = new int[attendees.size()];
+        start.await();
+        for (int i = 0; i < bookingsPerWriter; i++) {
+          int a = random.nextInt(attendees.size());
+          int b = random.nextInt(attendees.size());
+          TimeRange when = TimeRange.fromStartDuration(random.nextInt(1380), 1 + random.nextInt(60));
+          Event kept = new Event("Kept " + writer + "-" + i, when, Arrays.asList(attendees.get(a)));
+          Event cancelled = new Event("Cancelled " + writer + "-" + i, when, Arrays.asList(attendees.get(b)));
+          store.batch().add(kept).add(cancelled).commit();
+          store.remove(cancelled);
+          expected[a]++;
+        }
+        return expected;
+      }));
+    }
+
+    for (int r = 0; r < 2; r++) {
+      readerResults.add(executor.submit(() -> {
+        start.await();
+        long lastVersion = -1;
+        while (writing.get()) {
+          EventStore.Snapshot snapshot = store.snapshot();
+          Assert.assertTrue(snapshot.getVersion() >= lastVersion);
+          lastVersion = snapshot.getVersion();
+
+          int total = 0;
+          for (String attendee : attendees) {
+            List<TimeRange> times = snapshot.getTimes(attendee);
+            for (int i = 1; i < times.size(); i++) {
+              Assert.assertTrue(times.get(i - 1).start() <= times.get(i).start());
+            }
+            total += times.size();
+          }
+          // Every event has one attendee, so the schedules add up to the size of the snapshot.
+          Assert.assertEquals(snapshot.size(), total);
+          new FindMeetingQuery().query(snapshot, new MeetingRequest(attendees.subList(0, 3), 30));
+        }
+        return null;
+      }));
+    }
+
+    start.countDown();
+    int[] expected = new int[attendees.size()];
+    for (Future<int[]> result : writerResults) {
+      int[] tally = result.get(60, TimeUnit.SECONDS);
+      for (int i = 0; i < expected.length; i++) {
+        expected[i] += tally[i];
+      }
+    }
+    writing.set(false);
+    for (Future<?> result : readerResults) {
+      result.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    EventStore.Snapshot snapshot = store.snapshot();
+    Assert.assertEquals(writers * bookingsPerWriter, snapshot.size());
+    for (int i = 0; i < attendees.size(); i++) {
+      Assert.assertEquals(expected[i], snapshot.getTimes(attendees.get(i)).size());
+    }
+  }
+}
@@ -0,0 +1,89 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class FindMeetingQueryBatchTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final Collection<Event> EVENTS = Arrays.asList(
+      new Event("Event 1", TimeRange.fromStartDuration(480, 60), Arrays.asList(PERSON_A)),
+      new Event("Event 2", TimeRange.fromStartDuration(600, 120), Arrays.asList(PERSON_B)),
+      new Event("Event 3", TimeRange.fromStartDuration(900, 30), Arrays.asList(PERSON_A, PERSON_C)));
+
+  @Test
+  public void answersMatchSingleQueriesInOrder() {
+    // Use enough requests that the batch is answered in parallel.
+    List<MeetingRequest> requests = new ArrayList<>();
+    String[] people = {PERSON_A, PERSON_B, PERSON_C};
+    for (int i = 0; i < 50; i++) {
+      MeetingRequest request =
+          new MeetingRequest(Arrays.asList(people[i % people.length]), 15 + (i * 7) % 120);
+      request.addOptionalAttendee(people[(i + 1) % people.length]);
+      requests.add(request);
+    }
+
+    FindMeetingQuery query = new FindMeetingQuery();
+    List<Collection<TimeRange>> actual = query.queryBatch(EVENTS, requests);
+
+    Assert.assertEquals(requests.size(), actual.size());
+    for (int i = 0; i < requests.size(); i++) {
+      Assert.assertEquals(query.query(EVENTS, requests.get(i)), actual.get(i));
+    }
+  }
+
+  @Test
+  public void sourcesThatMayChangeAreReadOnTheCallingThread() {
+    // A source that is not known to be read-only, such as a CalendarStore, is never read from
+    // several threads at once, however large the batch.
+    Set<Thread> readers = ConcurrentHashMap.newKeySet();
+    EventIndex index = new EventIndex(EVENTS);
+    ScheduleSource schedules = attendee -> {
+      readers.add(Thread.currentThread());
+      return index.getTimes(attendee);
+    };
+    List<MeetingRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      requests.add(new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30));
+    }
+
+    new FindMeetingQuery().queryBatch(schedules, requests);
+
+    Assert.assertEquals(Collections.singleton(Thread.currentThread()), readers);
+  }
+
+  @Test
+  public void emptyBatch() {
+    List<Collection<TimeRange>> actual =
+        new FindMeetingQuery().queryBatch(EVENTS, new ArrayList<MeetingRequest>());
+
+    Assert.assertTrue(actual.isEmpty());
+  }
+}
@@ -0,0 +1,447 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Checks every query engine against {@code FindMeetingQuery.query} on random calendars built to hit
+ * edge cases: ranges that touch or nest, events without any duration, and events that end at
+ * {@code END_OF_DAY}. Requests may have a quorum, a limit or no duration at all, though not every
+ * engine is compared on requests without any duration. A failing calendar is shrunk to the
+ * smallest one that still fails before it is reported. Set the {@code fuzz.seed} system property
+ * to replay a run.
+ *
+ * <p>Set the {@code fuzz.report} system property to {@code true} to print each engine's throughput
+ * once the tests finish. Each engine builds its index or store for a calendar before it is timed,
+ * so the reported throughput only covers answering queries.
+ */
+@RunWith(JUnit4.class)
+public final class FindMeetingQueryFuzzTest {
+  private static final long SEED = Long.getLong("fuzz.seed", 20200101L);
+  private static final int ITERATIONS = 1000;
+  private static final boolean REPORT = Boolean.getBoolean("fuzz.report");
+
+  private static final List<String> PEOPLE =
+      Arrays.asList("Fuzz A", "Fuzz B", "Fuzz C", "Fuzz D", "Fuzz E");
+
+  private static final MeetingQueryEngine REFERENCE = new FindMeetingQuery();
+
+  // For a request without any duration, the reference also offers the empty range [t, t) between
+  // busy times that touch at t, and again for every other event without any duration at t. Which
+  // of these it finds depends on the order that events with the same start are read in. These
+  // engines merge, dedupe or order such events differently, so they are only compared with the
+  // reference on requests that have a duration.
+  private static final Set<String> DURATION_ONLY_ENGINES = new HashSet<>(Arrays.asList(
+      "k-way merge", "packed intervals", "bitmap", "iterator", "streamed events", "calendar store",
+      "off-heap store", "busy-set cache"));
+
+  // How long each engine took over every query in this run, reported once the tests finish if
+  // REPORT is set.
+  private static final Map<String, long[]> NANOS_AND_QUERIES = new LinkedHashMap<>();
+
+  // The file that the calendar snapshot engine writes each calendar to.
+  private static Path snapshotFile;
+
+  @BeforeClass
+  public static void createSnapshotFile() throws IOException {
+    snapshotFile = Files.createTempFile("fuzz", ".snapshot");
+    // Some platforms cannot delete a file while it is mapped, so wait until the tests finish.
+    snapshotFile.toFile().deleteOnExit();
+  }
+
+  @Test
+  public void enginesMatchReference() throws IOException {
+    Random random = new Random(SEED);
+    Map<String, Engine> engines = engines();
+
+    for (int i = 0; i < ITERATIONS; i++) {
+      Case fuzzCase = Case.random(random);
+      MeetingRequest request = fuzzCase.request();
+      Collection<TimeRange> expected = time("reference", REFERENCE::query, fuzzCase.events, request);
+
+      for (Map.Entry<String, Engine> engine : engines.entrySet()) {
+        if (!compares(engine.getKey(), fuzzCase)) {
+          continue;
+        }
+        Collection<TimeRange> actual =
+            time(engine.getKey(), engine.getValue().prepare(fuzzCase.events), fuzzCase.events, request);
+        if (!new ArrayList<>(expected).equals(new ArrayList<>(actual))) {
+          Case smallest = shrink(engine.getKey(), engine.getValue(), fuzzCase);
+          Assert.fail(String.format("%s differs from the reference (seed %d, iteration %d)%n%s%n"
+                  + "expected: %s%nactual:   %s",
+              engine.getKey(), SEED, i, smallest,
+              REFERENCE.query(smallest.events, smallest.request()),
+              engine.getValue().prepare(smallest.events).query(smallest.events, smallest.request())));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void shrinkingKeepsOnlyWhatFails() {
+    // An engine that is wrong whenever any event has no duration.
+    Engine broken = events -> (unused, request) -> {
+      for (Event event : events) {
+        if (event.getWhen().duration() == 0) {
+          return Collections.emptyList();
+        }
+      }
+      return REFERENCE.query(events, request);
+    };
+    Case fuzzCase = new Case(
+        Arrays.asList(
+            new Event("Long", TimeRange.fromStartDuration(0, 600), Arrays.asList("Fuzz A", "Fuzz B")),
+            new Event("Point", TimeRange.fromStartDuration(700, 0), Arrays.asList("Fuzz A", "Fuzz C")),
+            new Event("Late", TimeRange.fromStartEnd(900, TimeRange.END_OF_DAY, true), Arrays.asList("Fuzz B"))),
+        Arrays.asList("Fuzz A", "Fuzz B"), Arrays.asList("Fuzz C"), 30, 0, 0);
+
+    Case smallest = shrink("broken", broken, fuzzCase);
+
+    Assert.assertEquals(1, smallest.events.size());
+    Assert.assertEquals(0, smallest.events.get(0).getWhen().duration());
+    Assert.assertTrue(smallest.events.get(0).getAttendees().size() <= 1);
+    Assert.assertEquals(0, smallest.duration);
+  }
+
+  @AfterClass
+  public static void reportThroughput() {
+    if (!REPORT) {
+      return;
+    }
+    for (Map.Entry<String, long[]> engine : NANOS_AND_QUERIES.entrySet()) {
+      long nanos = engine.getValue()[0];
+      long queries = engine.getValue()[1];
+      System.out.printf("%-28s %10.0f queries/s%n", engine.getKey(), queries * 1e9 / Math.max(1, nanos));
+    }
+  }
+
+  /**
+   * Builds an engine's index or store for one calendar, returning a query that reuses it. Engines
+   * that only read the events as part of each query return themselves.
+   */
+  private interface Engine {
+    MeetingQueryEngine prepare(List<Event> events) throws IOException;
+  }
+
+  /**
+   * Every engine to check, by name.
+   */
+  private static Map<String, Engine> engines() {
+    Map<String, Engine> engines = new LinkedHashMap<>();
+    engines.put("k-way merge", events -> {
+      EventIndex index = new EventIndex(events);
+      FindMeetingQuery query = new FindMeetingQuery(MergeStrategy.K_WAY_MERGE);
+      return (unused, request) -> query.query(index, request);
+    });
+    engines.put("packed intervals", events -> new PackedIntervalQuery());
+    engines.put("bitmap", events -> new BitmapQuery());
+    engines.put("iterator", events -> {
+      EventIndex index = new EventIndex(events);
+      return (unused, request) -> {
+        List<TimeRange> times = new ArrayList<>();
+        new FindMeetingQuery().iterator(index, request).forEachRemaining(times::add);
+        return times;
+      };
+    });
+    engines.put("streamed events", events ->
+        (unused, request) -> new FindMeetingQuery().query(events.stream(), request));
+    engines.put("batch", events -> {
+      EventIndex index = new EventIndex(events);
+      return (unused, request) -> new FindMeetingQuery().queryBatch(index, Collections.nCopies(32, request)).get(31);
+    });
+    engines.put("calendar store", events -> schedulesQuery(new CalendarStore(events)));
+    engines.put("event store", events -> schedulesQuery(new EventStore(events).snapshot()));
+    engines.put("off-heap store", events -> schedulesQuery(new OffHeapEventStore(events)));
+    engines.put("busy-set cache", events -> {
+      // Ask twice so that the second answer comes from the cache.
+      CalendarStore store = new CalendarStore(events);
+      FindMeetingQuery query = new FindMeetingQuery(MergeStrategy.SORT_THEN_MERGE, new BusySetCache(store, 4));
+      return (unused, request) -> {
+        query.query(store, request);
+        return query.query(store, request);
+      };
+    });
+    engines.put("calendar snapshot", events -> {
+      CalendarSnapshot.write(events, snapshotFile);
+      return schedulesQuery(CalendarSnapshot.open(snapshotFile));
+    });
+    return engines;
+  }
+
+  /**
+   * Returns whether the engine called {@code name} is expected to give the reference's answer for
+   * {@code fuzzCase}.
+   */
+  private static boolean compares(String name, Case fuzzCase) {
+    return fuzzCase.duration > 0 || !DURATION_ONLY_ENGINES.contains(name);
+  }
+
+  private static MeetingQueryEngine schedulesQuery(ScheduleSource schedules) {
+    return (unused, request) -> new FindMeetingQuery().query(schedules, request);
+  }
+
+  private static Collection<TimeRange> time(
+      String name, MeetingQueryEngine engine, List<Event> events, MeetingRequest request) {
+    long start = System.nanoTime();
+    Collection<TimeRange> times = engine.query(events, request);
+    long[] nanosAndQueries = NANOS_AND_QUERIES.computeIfAbsent(name, key -> new long[2]);
+    nanosAndQueries[0] += System.nanoTime() - start;
+    nanosAndQueries[1]++;
+    return times;
+  }
+
+  /**
+   * Make {@code fuzzCase} smaller for as long as the engine called {@code name} still disagrees
+   * with the reference: drop events and attendees, narrow event times, and shorten the meeting.
+   */
+  private static Case shrink(String name, Engine engine, Case fuzzCase) {
+    boolean shrunk = true;
+    while (shrunk) {
+      shrunk = false;
+      for (Case smaller : fuzzCase.smaller()) {
+        if (compares(name, smaller) && fails(engine, smaller)) {
+          fuzzCase = smaller;
+          shrunk = true;
+          break;
+        }
+      }
+    }
+    return fuzzCase;
+  }
+
+  private static boolean fails(Engine engine, Case fuzzCase) {
+    try {
+      return !new ArrayList<>(REFERENCE.query(fuzzCase.events, fuzzCase.request()))
+          .equals(new ArrayList<>(engine.prepare(fuzzCase.events).query(fuzzCase.events, fuzzCase.request())));
+    } catch (IOException | RuntimeException e) {
+      // Throwing where the reference does not is a failure too.
+      return true;
+    }
+  }
+
+  /**
+   * One calendar and meeting request. Cases are read-only; {@code smaller} builds new ones.
+   */
+  private static final class Case {
+    private final List<Event> events;
+    private final List<String> attendees;
+    private final List<String> optionalAttendees;
+    private final long duration;
+    private final int quorum;
+    private final int limit;
+
+    Case(List<Event> events, List<String> attendees, List<String> optionalAttendees, long duration,
+        int quorum, int limit) {
+      this.events = events;
+      this.attendees = attendees;
+      this.optionalAttendees = optionalAttendees;
+      this.duration = duration;
+      this.quorum = quorum;
+      this.limit = limit;
+    }
+
+    static Case random(Random random) {
+      int eventCount = random.nextInt(20) == 0 ? 50 + random.nextInt(200) : random.nextInt(10);
+      List<Event> events = new ArrayList<>();
+      for (int i = 0; i < eventCount; i++) {
+        events.add(new Event("Event " + i, randomTime(random, events), randomPeople(random, 1)));
+      }
+
+      List<String> attendees = randomPeople(random, 0);
+      List<String> optionalAttendees = randomPeople(random, 0);
+      optionalAttendees.removeAll(attendees);
+      // Quorums sometimes ask for more attendees than there are, which no time can meet.
+      int quorum = random.nextInt(4) == 0 ? 1 + random.nextInt(attendees.size() + 1) : 0;
+      int limit = random.nextInt(4) == 0 ? 1 + random.nextInt(3) : 0;
+      return new Case(events, attendees, optionalAttendees, randomDuration(random, events), quorum, limit);
+    }
+
+    /**
+     * Picks a time that is likely to sit awkwardly against the events so far.
+     */
+    private static TimeRange randomTime(Random random, List<Event> events) {
+      TimeRange previous = events.isEmpty() ? null : events.get(random.nextInt(events.size())).getWhen();
+      int start = random.nextInt(TimeRange.END_OF_DAY + 1);
+      switch (random.nextInt(8)) {
+        case 0:
+          // No duration at all, which splits free time without making anyone busy.
+          return TimeRange.fromStartDuration(start, 0);
+        case 1:
+          // Runs to the end of the day.
+          return TimeRange.fromStartEnd(start, TimeRange.END_OF_DAY, true);
+        case 2:
+          // Starts where another event ends.
+          return previous == null || previous.end() > TimeRange.END_OF_DAY
+              ? TimeRange.WHOLE_DAY
+              : TimeRange.fromStartEnd(previous.end(), random.nextInt(TimeRange.END_OF_DAY + 2 - previous.end()) + previous.end(), false);
+        case 3:
+          // Ends where another event starts.
+          return previous == null
+              ? TimeRange.fromStartDuration(0, start)
+              : TimeRange.fromStartEnd(random.nextInt(previous.start() + 1), previous.start(), false);
+        case 4:
+          // Nested inside another event.
+          if (previous == null || previous.duration() == 0) {
+            return TimeRange.WHOLE_DAY;
+          }
+          int nestedStart = previous.start() + random.nextInt(previous.duration());
+          return TimeRange.fromStartEnd(nestedStart, nestedStart + random.nextInt(previous.end() - nestedStart + 1), false);
+        case 5:
+          // The same time as another event.
+          return previous == null ? TimeRange.fromStartDuration(start, 1) : previous;
+        default:
+          return TimeRange.fromStartEnd(start, start + random.nextInt(TimeRange.END_OF_DAY + 2 - start), false);
+      }
+    }
+
+    private static long randomDuration(Random random, List<Event> events) {
+      switch (random.nextInt(5)) {
+        case 0:
+          // Exactly as long as some event, so gaps of the same length are just long enough.
+          return events.isEmpty() ? 1 : Math.max(1, events.get(random.nextInt(events.size())).getWhen().duration());
+        case 1:
+          // About a whole day, or longer than one.
+          return TimeRange.WHOLE_DAY.duration() - 2 + random.nextInt(4);
+        case 2:
+          // No duration at all, so even gaps between touching events might do.
+          return 0;
+        default:
+          return 1 + random.nextInt(random.nextBoolean() ? 60 : TimeRange.WHOLE_DAY.duration());
+      }
+    }
+
+    private static List<String> randomPeople(Random random, int min) {
+      List<String> people = new ArrayList<>();
+      for (String person : PEOPLE) {
+        if (random.nextInt(3) == 0) {
+          people.add(person);
+        }
+      }
+      if (people.size() < min) {
+        people.add(PEOPLE.get(random.nextInt(PEOPLE.size())));
+      }
+      return people;
+    }
+
+    MeetingRequest request() {
+      MeetingRequest request = new MeetingRequest(attendees, duration);
+      request.setQuorum(quorum);
+      for (String attendee : optionalAttendees) {
+        request.addOptionalAttendee(attendee);
+      }
+      request.setLimit(limit);
+      return request;
+    }
+
+    /**
+     * Returns every case that is one step smaller than this one, most promising first.
+     */
+    List<Case> smaller() {
+      List<Case> cases = new ArrayList<>();
+      for (int i = 0; i < events.size(); i++) {
+        List<Event> fewer = new ArrayList<>(events);
+        fewer.remove(i);
+        cases.add(withEvents(fewer));
+      }
+
+      for (int i = 0; i < events.size(); i++) {
+        Event event = events.get(i);
+        List<String> eventAttendees = new ArrayList<>(event.getAttendees());
+        for (String attendee : eventAttendees) {
+          List<String> fewer = new ArrayList<>(eventAttendees);
+          fewer.remove(attendee);
+          cases.add(withEvent(i, new Event(event.getTitle(), event.getWhen(), fewer)));
+        }
+
+        TimeRange when = event.getWhen();
+        if (when.duration() > 1) {
+          int half = when.duration() / 2;
+          cases.add(withEvent(i, new Event(event.getTitle(), TimeRange.fromStartDuration(when.start(), half), eventAttendees)));
+          cases.add(withEvent(i, new Event(event.getTitle(), TimeRange.fromStartEnd(when.start() + half, when.end(), false), eventAttendees)));
+        }
+        if (when.duration() > 0) {
+          cases.add(withEvent(i, new Event(event.getTitle(), TimeRange.fromStartDuration(when.start(), when.duration() - 1), eventAttendees)));
+        }
+      }
+
+      for (String attendee : attendees) {
+        List<String> fewer = new ArrayList<>(attendees);
+        fewer.remove(attendee);
+        cases.add(new Case(events, fewer, optionalAttendees, duration, Math.min(quorum, fewer.size()), limit));
+      }
+      for (String attendee : optionalAttendees) {
+        List<String> fewer = new ArrayList<>(optionalAttendees);
+        fewer.remove(attendee);
+        cases.add(new Case(events, attendees, fewer, duration, quorum, limit));
+      }
+
+      if (quorum > 0) {
+        cases.add(new Case(events, attendees, optionalAttendees, duration, 0, limit));
+        cases.add(new Case(events, attendees, optionalAttendees, duration, quorum - 1, limit));
+      }
+      if (limit > 0) {
+        cases.add(new Case(events, attendees, optionalAttendees, duration, quorum, 0));
+        cases.add(new Case(events, attendees, optionalAttendees, duration, quorum, limit - 1));
+      }
+      if (duration > 0) {
+        cases.add(new Case(events, attendees, optionalAttendees, 0, quorum, limit));
+        cases.add(new Case(events, attendees, optionalAttendees, duration / 2, quorum, limit));
+        cases.add(new Case(events, attendees, optionalAttendees, duration - 1, quorum, limit));
+      }
+      return cases;
+    }
+
+    private Case withEvents(List<Event> newEvents) {
+      return new Case(newEvents, attendees, optionalAttendees, duration, quorum, limit);
+    }
+
+    private Case withEvent(int index, Event event) {
+      List<Event> newEvents = new ArrayList<>(events);
+      newEvents.set(index, event);
+      return withEvents(newEvents);
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder builder = new StringBuilder();
+      for (Event event : events) {
+        builder.append(String.format("event %s %s%n", event.getWhen(), event.getAttendees()));
+      }
+      return builder.append(String.format(
+          "request %s optional %s duration %d quorum %d limit %d",
+          attendees, optionalAttendees, duration, quorum, limit)).toString();
+    }
+  }
+}
@@ -0,0 +1,141 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class FindMeetingQueryReserveTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final Event MORNING =
+      new Event("Morning", TimeRange.fromStartEnd(0, 480, false), Arrays.asList(PERSON_A));
+  private static final Event OPTIONAL_MORNING =
+      new Event("Optional morning", TimeRange.fromStartEnd(480, 540, false), Arrays.asList(PERSON_C));
+
+  @Test
+  public void booksEarliestTimeForEveryone() {
+    EventStore store = new EventStore(Arrays.asList(MORNING, OPTIONAL_MORNING));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30);
+    request.addOptionalAttendee(PERSON_C);
+
+    Event booked = new FindMeetingQuery().reserve(store, request, "Sync").get();
+
+    Assert.assertEquals(TimeRange.fromStartDuration(540, 30), booked.getWhen());
+    Assert.assertEquals(
+        new Event("Sync", booked.getWhen(), Arrays.asList(PERSON_A, PERSON_B, PERSON_C)), booked);
+    Assert.assertTrue(store.snapshot().contains(booked));
+  }
+
+  @Test
+  public void optionalAttendeesAreLeftOutWhenNothingSuitsThem() {
+    Event allDay = new Event("All day", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_C));
+    EventStore store = new EventStore(Arrays.asList(MORNING, allDay));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    request.addOptionalAttendee(PERSON_C);
+
+    Event booked = new FindMeetingQuery().reserve(store, request, "Sync").get();
+
+    Assert.assertEquals(TimeRange.fromStartDuration(480, 30), booked.getWhen());
+    Assert.assertEquals(Collections.singleton(PERSON_A), booked.getAttendees());
+  }
+
+  @Test
+  public void nothingIsBookedWhenNoTimeSuits() {
+    Event allDay = new Event("All day", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_A));
+    EventStore store = new EventStore(Arrays.asList(allDay));
+    EventStore.Snapshot before = store.snapshot();
+
+    Optional<Event> booked = new FindMeetingQuery()
+        .reserve(store, new MeetingRequest(Arrays.asList(PERSON_A), 30), "Sync");
+
+    Assert.assertFalse(booked.isPresent());
+    Assert.assertSame(before, store.snapshot());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void quorumRequestsAreRejected() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30);
+    request.setQuorum(1);
+
+    new FindMeetingQuery().reserve(new EventStore(), request, "Sync");
+  }
+
+  @Test
+  public void staleVersionStopsCommit() {
+    EventStore store = new EventStore();
+    long version = store.snapshot().getVersion(PERSON_A);
+    store.add(MORNING);
+
+    EventStore.Snapshot result = store.batch()
+        .add(OPTIONAL_MORNING)
+        .expectVersion(PERSON_A, version)
+        .commit();
+
+    Assert.assertNull(result);
+    Assert.assertFalse(store.snapshot().contains(OPTIONAL_MORNING));
+  }
+
+  @Test
+  public void concurrentReservationsNeverOverlap() throws Exception {
+    EventStore store = new EventStore();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    // Every thread keeps booking the same two people until their day is full.
+    List<Future<Integer>> results = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      int thread = i;
+      results.add(executor.submit(() -> {
+        FindMeetingQuery query = new FindMeetingQuery();
+        int booked = 0;
+        while (query.reserve(store, request, "Meeting " + thread + "-" + booked).isPresent()) {
+          booked++;
+        }
+        return booked;
+      }));
+    }
+
+    int booked = 0;
+    for (Future<Integer> result : results) {
+      booked += result.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    List<TimeRange> times = store.snapshot().getTimes(PERSON_A);
+    Assert.assertEquals(booked, times.size());
+    Assert.assertEquals(times, store.snapshot().getTimes(PERSON_B));
+    for (int i = 1; i < times.size(); i++) {
+      Assert.assertFalse(times.get(i - 1).overlaps(times.get(i)));
+    }
+    Assert.assertEquals(Collections.emptyList(), new FindMeetingQuery().query(store.snapshot(), request));
+  }
+}
@@ -0,0 +1,140 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class HorizonQueryTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  // An arbitrary day to start searching from, and the first minute of each of the next days.
+  private static final long DAY = 18262;
+  private static final long DAY_0 = EpochRange.startOfDay(DAY);
+  private static final long DAY_1 = EpochRange.startOfDay(DAY + 1);
+  private static final long DAY_2 = EpochRange.startOfDay(DAY + 2);
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0500PM = TimeRange.getTimeInMinutes(17, 0);
+
+  private static final int DURATION_1_HOUR = 60;
+
+  private FindMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new FindMeetingQuery();
+  }
+
+  @Test
+  public void freeTimeRunsPastMidnight() {
+    // A works 9 to 5 on both days, so the evening of day 0 joins the morning of day 1.
+    TimeRange workday = TimeRange.fromStartEnd(TIME_0900AM, TIME_0500PM, false);
+    HorizonCalendar calendar = new HorizonCalendar(Arrays.asList(
+        new HorizonEvent("Work 1", EpochRange.onDay(DAY, workday), Arrays.asList(PERSON_A)),
+        new HorizonEvent("Work 2", EpochRange.onDay(DAY + 1, workday), Arrays.asList(PERSON_A))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+
+    List<EpochRange> actual = toList(query.queryHorizon(calendar, request, EpochRange.ofDays(DAY, 2)));
+    List<EpochRange> expected = Arrays.asList(
+        EpochRange.fromStartEnd(DAY_0, DAY_0 + TIME_0900AM),
+        EpochRange.fromStartEnd(DAY_0 + TIME_0500PM, DAY_1 + TIME_0900AM),
+        EpochRange.fromStartEnd(DAY_1 + TIME_0500PM, DAY_2));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void eventsSpanningDaysAreClippedToTheWindow() {
+    // A is away from the middle of day 0 to the middle of day 2, which covers the whole window
+    // except the first half of day 0.
+    HorizonCalendar calendar = new HorizonCalendar(Arrays.asList(new HorizonEvent(
+        "Trip", EpochRange.fromStartEnd(DAY_0 + 720, DAY_2 + 720), Arrays.asList(PERSON_A))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+
+    List<EpochRange> actual = toList(query.queryHorizon(calendar, request, EpochRange.ofDays(DAY, 2)));
+    List<EpochRange> expected = Arrays.asList(EpochRange.fromStartEnd(DAY_0, DAY_0 + 720));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeesAreDroppedOnlyIfTheyNeverFit() {
+    // B is busy for the whole window, so only A is considered.
+    TimeRange morning = TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false);
+    HorizonCalendar calendar = new HorizonCalendar(Arrays.asList(
+        new HorizonEvent("Busy", EpochRange.ofDays(DAY, 2), Arrays.asList(PERSON_B)),
+        new HorizonEvent("Early", EpochRange.onDay(DAY + 1, morning), Arrays.asList(PERSON_A))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.addOptionalAttendee(PERSON_B);
+
+    List<EpochRange> actual = toList(query.queryHorizon(calendar, request, EpochRange.ofDays(DAY, 2)));
+    List<EpochRange> expected = Arrays.asList(
+        EpochRange.fromStartEnd(DAY_0, DAY_1), EpochRange.fromStartEnd(DAY_1 + TIME_0900AM, DAY_2));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void limitStopsTheScan() {
+    // A is free for an hour at the start of every day, so two weeks hold 14 options.
+    List<HorizonEvent> events = new ArrayList<>();
+    for (int day = 0; day < 14; day++) {
+      events.add(new HorizonEvent("Busy " + day,
+          EpochRange.fromStartEnd(EpochRange.startOfDay(DAY + day) + DURATION_1_HOUR,
+              EpochRange.startOfDay(DAY + day + 1)),
+          Arrays.asList(PERSON_A)));
+    }
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.setLimit(3);
+
+    List<EpochRange> actual = toList(
+        query.queryHorizon(new HorizonCalendar(events), request, EpochRange.ofDays(DAY, 14)));
+    List<EpochRange> expected = Arrays.asList(EpochRange.fromStartDuration(DAY_0, DURATION_1_HOUR),
+        EpochRange.fromStartDuration(DAY_1, DURATION_1_HOUR),
+        EpochRange.fromStartDuration(DAY_2, DURATION_1_HOUR));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void windowWithinOneDay() {
+    HorizonCalendar calendar = new HorizonCalendar(Collections.emptyList());
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    EpochRange window = EpochRange.fromStartEnd(DAY_0 + TIME_0900AM, DAY_0 + TIME_0500PM);
+
+    List<EpochRange> actual = toList(query.queryHorizon(calendar, request, window));
+
+    Assert.assertEquals(Arrays.asList(window), actual);
+  }
+
+  private static List<EpochRange> toList(Iterator<EpochRange> ranges) {
+    List<EpochRange> list = new ArrayList<>();
+    ranges.forEachRemaining(list::add);
+    return list;
+  }
+}
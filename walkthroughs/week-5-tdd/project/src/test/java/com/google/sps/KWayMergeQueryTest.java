@@ -0,0 +1,90 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@code MergeStrategy.K_WAY_MERGE}. */
+@RunWith(JUnit4.class)
+public final class KWayMergeQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  @Test
+  public void overlappingTimesAcrossAttendeesAreMerged() {
+    List<List<TimeRange>> schedules = Arrays.asList(
+        Arrays.asList(TimeRange.fromStartEnd(60, 120, false), TimeRange.fromStartEnd(300, 400, false)),
+        Arrays.asList(TimeRange.fromStartEnd(90, 200, false)),
+        Arrays.asList(TimeRange.fromStartEnd(100, 110, false), TimeRange.fromStartEnd(350, 500, false)));
+
+    List<TimeRange> actual = MergeStrategy.K_WAY_MERGE.merge(schedules);
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(60, 200, false), TimeRange.fromStartEnd(300, 500, false));
+
+    Assert.assertEquals(expected, actual);
+    Assert.assertEquals(MergeStrategy.SORT_THEN_MERGE.merge(schedules), actual);
+  }
+
+  @Test
+  public void touchingTimesAreKeptApart() {
+    List<List<TimeRange>> schedules = Arrays.asList(
+        Arrays.asList(TimeRange.fromStartEnd(60, 120, false)),
+        Arrays.asList(TimeRange.fromStartEnd(120, 180, false)));
+
+    List<TimeRange> actual = MergeStrategy.K_WAY_MERGE.merge(schedules);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(60, 120, false), TimeRange.fromStartEnd(120, 180, false)),
+        actual);
+  }
+
+  @Test
+  public void emptySchedulesAreSkipped() {
+    List<List<TimeRange>> schedules = Arrays.asList(
+        Collections.<TimeRange>emptyList(),
+        Arrays.asList(TimeRange.fromStartEnd(60, 120, false)),
+        Collections.<TimeRange>emptyList());
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(60, 120, false)), MergeStrategy.K_WAY_MERGE.merge(schedules));
+    Assert.assertEquals(
+        Collections.emptyList(), MergeStrategy.K_WAY_MERGE.merge(Collections.<List<TimeRange>>emptyList()));
+  }
+
+  @Test
+  public void queryFallsBackToMandatoryAttendees() {
+    // C is busy all day, so the answer only depends on A and B.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(480, 540, false), Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(510, 600, false), Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_C)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30);
+    request.addOptionalAttendee(PERSON_C);
+
+    Collection<TimeRange> actual = new FindMeetingQuery(MergeStrategy.K_WAY_MERGE).query(events, request);
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.fromStartEnd(0, 480, false),
+        TimeRange.fromStartEnd(600, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+}
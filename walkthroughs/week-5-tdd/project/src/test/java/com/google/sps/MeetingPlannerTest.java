@@ -0,0 +1,157 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MeetingPlannerTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int DURATION_1_HOUR = 60;
+
+  private MeetingPlanner planner;
+
+  @Before
+  public void setUp() {
+    planner = new MeetingPlanner();
+  }
+
+  @Test
+  public void mostConstrainedMeetingGoesFirst() {
+    // B is only free for the first hour. Booking A's own meeting first at the earliest time would
+    // leave no time for A and B together.
+    EventStore store = new EventStore(Arrays.asList(new Event("Busy",
+        TimeRange.fromStartEnd(DURATION_1_HOUR, TimeRange.END_OF_DAY, true), Arrays.asList(PERSON_B))));
+    List<MeetingRequest> requests = Arrays.asList(
+        new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR),
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_1_HOUR));
+
+    MeetingPlanner.Plan plan = planner.schedule(store, requests, Arrays.asList("Prep", "Sync"));
+
+    Assert.assertEquals(Collections.emptyList(), plan.getUnscheduled());
+    Assert.assertEquals(TimeRange.fromStartDuration(0, DURATION_1_HOUR), plan.getEvents().get(1).getWhen());
+    Assert.assertFalse(plan.getEvents().get(0).getWhen().overlaps(plan.getEvents().get(1).getWhen()));
+  }
+
+  @Test
+  public void tightestFreeTimeIsUsed() {
+    // A is free for two hours at the start of the day and for exactly one hour at 5am.
+    EventStore store = new EventStore(Arrays.asList(
+        new Event("Early", TimeRange.fromStartEnd(120, 300, false), Arrays.asList(PERSON_A)),
+        new Event("Late", TimeRange.fromStartEnd(360, TimeRange.END_OF_DAY, true), Arrays.asList(PERSON_A))));
+
+    MeetingPlanner.Plan plan = planner.schedule(store,
+        Arrays.asList(new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR)), Arrays.asList("Sync"));
+
+    Assert.assertEquals(TimeRange.fromStartDuration(300, DURATION_1_HOUR), plan.getEvents().get(0).getWhen());
+  }
+
+  @Test
+  public void optionalAttendeesAreInvitedOnlyIfTheyFit() {
+    EventStore store = new EventStore(Arrays.asList(
+        new Event("Busy", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_C))));
+    MeetingRequest withB = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    withB.addOptionalAttendee(PERSON_B);
+    MeetingRequest withC = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    withC.addOptionalAttendee(PERSON_C);
+
+    MeetingPlanner.Plan plan = planner.schedule(store, Arrays.asList(withB, withC), Arrays.asList("B", "C"));
+
+    Assert.assertEquals(2, plan.getEvents().size());
+    Assert.assertTrue(plan.getEvents().get(0).getAttendees().contains(PERSON_B));
+    Assert.assertFalse(plan.getEvents().get(1).getAttendees().contains(PERSON_C));
+  }
+
+  @Test
+  public void meetingsThatDoNotFitAreReported() {
+    EventStore store = new EventStore();
+    MeetingRequest tooLong = new MeetingRequest(Arrays.asList(PERSON_A), TimeRange.WHOLE_DAY.duration() + 1);
+    List<MeetingRequest> requests = Arrays.asList(
+        new MeetingRequest(Arrays.asList(PERSON_A), TimeRange.WHOLE_DAY.duration() - DURATION_1_HOUR),
+        tooLong);
+
+    MeetingPlanner.Plan plan = planner.schedule(store, requests, Arrays.asList("Workshop", "Marathon"));
+
+    Assert.assertEquals(1, plan.getEvents().size());
+    Assert.assertEquals(Arrays.asList(tooLong), plan.getUnscheduled());
+    Assert.assertEquals(plan.getEvents(), store.snapshot().getEvents(PERSON_A));
+  }
+
+  @Test
+  public void offsiteIsPlannedQuicklyWithoutConflicts() {
+    // About 50 meetings among 200 people who already have some events each.
+    Random random = new Random(24);
+    List<String> people = new ArrayList<>();
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      String person = "Offsite " + i;
+      people.add(person);
+      for (int j = 0; j < 4; j++) {
+        int start = random.nextInt(TimeRange.END_OF_DAY - 120);
+        events.add(new Event(person + " event " + j,
+            TimeRange.fromStartDuration(start, 15 + random.nextInt(90)), Arrays.asList(person)));
+      }
+    }
+    EventStore store = new EventStore(events);
+
+    List<MeetingRequest> requests = new ArrayList<>();
+    List<String> titles = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      Collections.shuffle(people, random);
+      MeetingRequest request = new MeetingRequest(people.subList(0, 2 + random.nextInt(8)), 30 + 15 * random.nextInt(6));
+      request.addOptionalAttendee(people.get(10));
+      requests.add(request);
+      titles.add("Session " + i);
+    }
+
+    long start = System.nanoTime();
+    MeetingPlanner.Plan plan = planner.schedule(store, requests, titles);
+    long millis = (System.nanoTime() - start) / 1_000_000;
+
+    Assert.assertEquals(50, plan.getEvents().size() + plan.getUnscheduled().size());
+    Assert.assertTrue("placed " + plan.getEvents().size(), plan.getEvents().size() >= 45);
+    Assert.assertTrue("took " + millis + "ms", millis < 1000);
+
+    // Every booked meeting is clear of everything else its attendees are at.
+    EventStore.Snapshot snapshot = store.snapshot();
+    for (Event meeting : plan.getEvents()) {
+      for (String attendee : meeting.getAttendees()) {
+        for (Event other : snapshot.getEvents(attendee)) {
+          Assert.assertTrue(other == meeting || !other.getWhen().overlaps(meeting.getWhen()));
+        }
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void everyRequestNeedsATitle() {
+    planner.schedule(new EventStore(),
+        Arrays.asList(new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR)), Collections.emptyList());
+  }
+}
@@ -0,0 +1,121 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@code OffHeapEventStore}. */
+@RunWith(JUnit4.class)
+public final class OffHeapEventStoreTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final Event MORNING = new Event(
+      "Morning", TimeRange.fromStartDuration(480, 60), Arrays.asList(PERSON_A, PERSON_B));
+  private static final Event NOON =
+      new Event("Noon", TimeRange.fromStartDuration(720, 30), Arrays.asList(PERSON_B));
+  private static final Event EARLY =
+      new Event("Early", TimeRange.fromStartDuration(60, 30), Arrays.asList(PERSON_B));
+
+  @Test
+  public void timesAreKeptSortedByStart() {
+    OffHeapEventStore store = new OffHeapEventStore(Arrays.asList(NOON, MORNING, EARLY));
+
+    Assert.assertEquals(3, store.size());
+    Assert.assertEquals(Arrays.asList(MORNING.getWhen()), store.getTimes(PERSON_A));
+    Assert.assertEquals(
+        Arrays.asList(EARLY.getWhen(), MORNING.getWhen(), NOON.getWhen()), store.getTimes(PERSON_B));
+    Assert.assertEquals(Collections.emptyList(), store.getTimes(PERSON_C));
+  }
+
+  @Test
+  public void removingAnEventFreesEveryAttendee() {
+    OffHeapEventStore store = new OffHeapEventStore(Arrays.asList(MORNING, NOON));
+    long version = store.getVersion();
+
+    Assert.assertTrue(store.removeEvent(MORNING));
+
+    Assert.assertEquals(1, store.size());
+    Assert.assertTrue(store.getVersion() > version);
+    Assert.assertEquals(Collections.emptyList(), store.getTimes(PERSON_A));
+    Assert.assertEquals(Arrays.asList(NOON.getWhen()), store.getTimes(PERSON_B));
+  }
+
+  @Test
+  public void removingAMissingEventChangesNothing() {
+    OffHeapEventStore store = new OffHeapEventStore(Arrays.asList(NOON));
+    long version = store.getVersion();
+
+    // B has the time but A does not, so the event as a whole is not in the store.
+    Assert.assertFalse(store.removeEvent(
+        new Event("Noon", NOON.getWhen(), Arrays.asList(PERSON_A, PERSON_B))));
+    Assert.assertFalse(store.removeEvent(new Event("Nobody", NOON.getWhen(), Collections.emptyList())));
+
+    Assert.assertEquals(version, store.getVersion());
+    Assert.assertEquals(Arrays.asList(NOON.getWhen()), store.getTimes(PERSON_B));
+  }
+
+  @Test
+  public void busyAttendeesOutgrowSharedBuffers() {
+    // More times than fit in a shared buffer, added out of order.
+    OffHeapEventStore store = new OffHeapEventStore();
+    int count = 100_000;
+    for (int i = 0; i < count; i++) {
+      int start = (i * 7919) % TimeRange.END_OF_DAY;
+      store.add(TimeRange.fromStartDuration(start, 1), Arrays.asList(PERSON_C));
+    }
+
+    List<TimeRange> times = store.getTimes(PERSON_C);
+    Assert.assertEquals(count, times.size());
+    for (int i = 1; i < times.size(); i++) {
+      Assert.assertTrue(times.get(i - 1).start() <= times.get(i).start());
+    }
+  }
+
+  @Test
+  public void freedRegionsAreReused() {
+    OffHeapEventStore store = new OffHeapEventStore();
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(i % 1400, 30),
+          Arrays.asList("Off heap " + (i % 100))));
+    }
+
+    for (Event event : events) {
+      store.addEvent(event);
+    }
+    long bytes = store.getOffHeapBytes();
+    for (int round = 0; round < 10; round++) {
+      for (Event event : events) {
+        Assert.assertTrue(store.removeEvent(event));
+      }
+      for (Event event : events) {
+        store.addEvent(event);
+      }
+    }
+
+    Assert.assertEquals(bytes, store.getOffHeapBytes());
+    Assert.assertEquals(events.size(), store.size());
+  }
+}
@@ -0,0 +1,83 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@code PackedIntervalQuery}. */
+@RunWith(JUnit4.class)
+public final class PackedIntervalQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  @Test
+  public void nestedAndTouchingEvents() {
+    // B's event sits inside A's, and A's second event starts where the first one ends, so the
+    // only gaps are around the whole block.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(480, 600, false), Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(500, 520, false), Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartEnd(600, 660, false), Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30);
+
+    Collection<TimeRange> actual = new PackedIntervalQuery().query(events, request);
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.fromStartEnd(0, 480, false),
+        TimeRange.fromStartEnd(660, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void eventUntilEndOfDayLeavesNoTrailingGap() {
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(1200, TimeRange.END_OF_DAY, true), Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 60);
+
+    Collection<TimeRange> actual = new PackedIntervalQuery().query(events, request);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(0, 1200, false)), actual);
+  }
+
+  @Test
+  public void limitKeepsEarliestOptions() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(480, 30), Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(600, 30), Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    request.setLimit(2);
+
+    Collection<TimeRange> actual = new PackedIntervalQuery().query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(0, 480, false), TimeRange.fromStartEnd(510, 600, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void tooLongForTheDay() {
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A), TimeRange.WHOLE_DAY.duration() + 1);
+
+    Collection<TimeRange> actual = new PackedIntervalQuery().query(Collections.<Event>emptyList(), request);
+
+    Assert.assertEquals(Collections.emptyList(), actual);
+  }
+}
@@ -0,0 +1,103 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryCacheTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final Event MORNING =
+      new Event("Morning", TimeRange.fromStartEnd(480, 540, false), Arrays.asList(PERSON_A));
+  private static final Event LUNCH =
+      new Event("Lunch", TimeRange.fromStartEnd(720, 780, false), Arrays.asList(PERSON_B));
+
+  private CalendarStore store;
+  private QueryCache cache;
+
+  @Before
+  public void setUp() {
+    store = new CalendarStore(Arrays.asList(MORNING));
+    cache = new QueryCache(store, new FindMeetingQuery(), 2);
+  }
+
+  @Test
+  public void attendeeOrderDoesNotMatter() {
+    Collection<TimeRange> first = cache.query(new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30));
+    Collection<TimeRange> second = cache.query(new MeetingRequest(Arrays.asList(PERSON_B, PERSON_A), 30));
+
+    Assert.assertSame(first, second);
+    Assert.assertEquals(1, cache.getHitCount());
+    Assert.assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void differentRequestsAreCachedSeparately() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    MeetingRequest longer = new MeetingRequest(Arrays.asList(PERSON_A), 60);
+    MeetingRequest withOptional = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    withOptional.addOptionalAttendee(PERSON_B);
+
+    cache.query(request);
+    cache.query(longer);
+    cache.query(withOptional);
+
+    Assert.assertEquals(0, cache.getHitCount());
+    Assert.assertEquals(3, cache.getMissCount());
+  }
+
+  @Test
+  public void storeChangesAreSeen() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30);
+    cache.query(request);
+
+    store.addEvent(LUNCH);
+    Collection<TimeRange> actual = cache.query(request);
+
+    Collection<TimeRange> expected = new FindMeetingQuery().query(store, request);
+    Assert.assertEquals(expected, actual);
+    Assert.assertEquals(0, cache.getHitCount());
+    Assert.assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void leastRecentlyUsedAnswerIsDropped() {
+    MeetingRequest requestA = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    MeetingRequest requestB = new MeetingRequest(Arrays.asList(PERSON_B), 30);
+    MeetingRequest requestC = new MeetingRequest(Arrays.asList(PERSON_C), 30);
+
+    cache.query(requestA);
+    cache.query(requestB);
+    cache.query(requestA);
+    cache.query(requestC);
+
+    Assert.assertEquals(2, cache.size());
+    cache.query(requestA);
+    Assert.assertEquals(2, cache.getHitCount());
+    cache.query(requestB);
+    Assert.assertEquals(4, cache.getMissCount());
+  }
+}
@@ -0,0 +1,110 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryStatsTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final EventIndex SCHEDULES = new EventIndex(Arrays.asList(
+      new Event("Event 1", TimeRange.fromStartDuration(480, 60), Arrays.asList(PERSON_A)),
+      new Event("Event 2", TimeRange.fromStartDuration(510, 60), Arrays.asList(PERSON_A)),
+      new Event("Event 3", TimeRange.fromStartDuration(0, 1440), Arrays.asList(PERSON_B))));
+
+  @Test
+  public void recordsEveryPhaseOfSampledQueries() {
+    QueryStats stats = new QueryStats(1);
+    FindMeetingQuery query = new FindMeetingQuery(MergeStrategy.SORT_THEN_MERGE, null, stats);
+
+    Collection<TimeRange> actual = query.query(SCHEDULES, new MeetingRequest(Arrays.asList(PERSON_A), 30));
+
+    Assert.assertEquals(new FindMeetingQuery().query(SCHEDULES, new MeetingRequest(Arrays.asList(PERSON_A), 30)), actual);
+    for (QueryStats.Phase phase : QueryStats.Phase.values()) {
+      Assert.assertEquals(1, stats.getCount(phase));
+    }
+    Assert.assertEquals(2, stats.getCounter(QueryStats.Counter.EVENTS_SCANNED));
+    Assert.assertEquals(1, stats.getCounter(QueryStats.Counter.INTERVALS_MERGED));
+    Assert.assertEquals(2, stats.getCounter(QueryStats.Counter.SLOTS_PRODUCED));
+  }
+
+  @Test
+  public void fallbackToMandatoryAttendeesIsRecordedOnce() {
+    // B is busy all day, so the query looks at A on their own too, but it is still one query.
+    QueryStats stats = new QueryStats(1);
+    FindMeetingQuery query = new FindMeetingQuery(MergeStrategy.SORT_THEN_MERGE, null, stats);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    request.addOptionalAttendee(PERSON_B);
+
+    query.query(SCHEDULES, request);
+
+    for (QueryStats.Phase phase : QueryStats.Phase.values()) {
+      Assert.assertEquals(1, stats.getCount(phase));
+    }
+    Assert.assertEquals(3, stats.getCounter(QueryStats.Counter.EVENTS_SCANNED));
+    Assert.assertEquals(1, stats.getCounter(QueryStats.Counter.INTERVALS_MERGED));
+  }
+
+  @Test
+  public void recordsNothingWithSamplingOff() {
+    QueryStats stats = new QueryStats(0);
+    FindMeetingQuery query = new FindMeetingQuery(MergeStrategy.SORT_THEN_MERGE, null, stats);
+
+    query.query(SCHEDULES, new MeetingRequest(Arrays.asList(PERSON_A), 30));
+
+    Assert.assertEquals(0, stats.getCount(QueryStats.Phase.TOTAL));
+    Assert.assertEquals(0, stats.getCounter(QueryStats.Counter.SLOTS_PRODUCED));
+  }
+
+  @Test
+  public void samplesAboutOneQueryInSampleRate() {
+    QueryStats stats = new QueryStats(10);
+    for (int i = 0; i < 10000; i++) {
+      stats.startSample().end();
+    }
+
+    long count = stats.getCount(QueryStats.Phase.TOTAL);
+    Assert.assertTrue("sampled " + count, count > 700 && count < 1300);
+  }
+
+  @Test
+  public void percentilesAreBucketUpperBounds() {
+    QueryStats stats = new QueryStats(1);
+    // Without a clock to control, only check that the bounds are ordered and cover the slowest.
+    for (int i = 0; i < 100; i++) {
+      stats.startSample().end();
+    }
+
+    long p50 = stats.getPercentileNanos(QueryStats.Phase.TOTAL, 50);
+    long p100 = stats.getPercentileNanos(QueryStats.Phase.TOTAL, 100);
+    Assert.assertTrue(p50 <= p100);
+    Assert.assertTrue(stats.getTotalNanos(QueryStats.Phase.TOTAL) / 100 <= p100);
+    Assert.assertEquals(0, stats.getPercentileNanos(QueryStats.Phase.FIND_EVENT_TIMES, 99));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeSampleRateIsRejected() {
+    new QueryStats(-1);
+  }
+}
@@ -0,0 +1,167 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RecurringEventTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  // Wednesday, January 1st 2020, and the first minute of it.
+  private static final long DAY = LocalDate.of(2020, 1, 1).toEpochDay();
+  private static final long DAY_0 = EpochRange.startOfDay(DAY);
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100PM = TimeRange.getTimeInMinutes(23, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_1_HOUR = 60;
+  private static final int DURATION_2_HOURS = 120;
+
+  private FindMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new FindMeetingQuery();
+  }
+
+  @Test
+  public void weeklyRulesFollowTheDayOfTheWeek() {
+    RecurrenceRule rule = RecurrenceRule.weekly(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY);
+
+    Assert.assertTrue(rule.occursOn(DAY, DAY));
+    Assert.assertFalse(rule.occursOn(DAY + 1, DAY));
+    Assert.assertTrue(rule.occursOn(DAY + 5, DAY));
+    Assert.assertFalse(rule.occursOn(DAY - 2, DAY));
+  }
+
+  @Test
+  public void intervalRulesCountFromTheFirstDayUntilTheLast() {
+    RecurrenceRule rule = RecurrenceRule.everyDays(3).until(DAY + 6);
+
+    Assert.assertTrue(rule.occursOn(DAY + 3, DAY));
+    Assert.assertFalse(rule.occursOn(DAY + 4, DAY));
+    Assert.assertTrue(rule.occursOn(DAY + 6, DAY));
+    Assert.assertFalse(rule.occursOn(DAY + 9, DAY));
+  }
+
+  @Test
+  public void dailyEventBlocksEveryDay() {
+    // A has a standup at 9 every day, forever.
+    HorizonCalendar calendar = new HorizonCalendar();
+    calendar.addRecurringEvent(new RecurringEvent("Standup",
+        EpochRange.fromStartDuration(DAY_0 + TIME_0900AM, DURATION_1_HOUR), RecurrenceRule.daily(),
+        Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+
+    List<EpochRange> actual = toList(query.queryHorizon(calendar, request, EpochRange.ofDays(DAY + 1000, 2)));
+    long start = EpochRange.startOfDay(DAY + 1000);
+    List<EpochRange> expected = Arrays.asList(
+        EpochRange.fromStartEnd(start, start + TIME_0900AM),
+        EpochRange.fromStartEnd(start + TIME_1000AM, start + EpochRange.MINUTES_PER_DAY + TIME_0900AM),
+        EpochRange.fromStartEnd(start + EpochRange.MINUTES_PER_DAY + TIME_1000AM, start + 2 * EpochRange.MINUTES_PER_DAY));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void occurrencesBeforeTheFirstDayAreIgnored() {
+    HorizonCalendar calendar = new HorizonCalendar();
+    calendar.addRecurringEvent(new RecurringEvent("Standup",
+        EpochRange.fromStartDuration(DAY_0 + TIME_0900AM, DURATION_1_HOUR), RecurrenceRule.daily(),
+        Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+
+    List<EpochRange> actual = toList(query.queryHorizon(calendar, request, EpochRange.ofDays(DAY - 1, 1)));
+
+    Assert.assertEquals(Arrays.asList(EpochRange.ofDays(DAY - 1, 1)), actual);
+  }
+
+  @Test
+  public void occurrencesRunPastMidnight() {
+    // B's on-call shift runs from 11pm to 1am every Wednesday, so Thursday's first hour is busy.
+    HorizonCalendar calendar = new HorizonCalendar();
+    calendar.addRecurringEvent(new RecurringEvent("On call",
+        EpochRange.fromStartDuration(DAY_0 + TIME_1100PM, DURATION_2_HOURS),
+        RecurrenceRule.weekly(DayOfWeek.WEDNESDAY), Arrays.asList(PERSON_B)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_30_MINUTES);
+
+    List<EpochRange> actual = toList(query.queryHorizon(calendar, request, EpochRange.ofDays(DAY + 8, 1)));
+    long thursday = EpochRange.startOfDay(DAY + 8);
+
+    Assert.assertEquals(Arrays.asList(EpochRange.fromStartEnd(thursday + 60, thursday + EpochRange.MINUTES_PER_DAY)), actual);
+  }
+
+  @Test
+  public void matchesExpandedOccurrences() {
+    // Recurring events must give the same answer as adding every occurrence one at a time.
+    List<RecurringEvent> recurringEvents = Arrays.asList(
+        new RecurringEvent("Standup", EpochRange.fromStartDuration(DAY_0 + TIME_0900AM, 15),
+            RecurrenceRule.weekly(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.THURSDAY),
+            Arrays.asList(PERSON_A, PERSON_B)),
+        new RecurringEvent("Review", EpochRange.fromStartDuration(DAY_0 + 600, 90),
+            RecurrenceRule.everyDays(3).until(DAY + 20), Arrays.asList(PERSON_A)),
+        new RecurringEvent("Night shift", EpochRange.fromStartDuration(DAY_0 + 1320, 600),
+            RecurrenceRule.everyDays(4), Arrays.asList(PERSON_B)),
+        new RecurringEvent("Offsite", EpochRange.fromStartDuration(DAY_0 + 720, 3000),
+            RecurrenceRule.everyDays(9), Arrays.asList(PERSON_B)));
+
+    HorizonCalendar recurring = new HorizonCalendar();
+    HorizonCalendar expanded = new HorizonCalendar();
+    for (RecurringEvent event : recurringEvents) {
+      recurring.addRecurringEvent(event);
+      for (long day = DAY; day < DAY + 40; day++) {
+        if (event.getRule().occursOn(day, DAY)) {
+          expanded.addEvent(new HorizonEvent(event.getTitle(),
+              EpochRange.fromStartDuration(EpochRange.startOfDay(day) + event.getFirst().start() - DAY_0,
+                  event.getFirst().duration()),
+              event.getAttendees()));
+        }
+      }
+    }
+
+    for (int duration : new int[] {DURATION_30_MINUTES, DURATION_2_HOURS}) {
+      MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), duration);
+      request.addOptionalAttendee(PERSON_B);
+      EpochRange window = EpochRange.fromStartEnd(DAY_0 + 300, EpochRange.startOfDay(DAY + 30) + 300);
+
+      Assert.assertEquals(
+          toList(query.queryHorizon(expanded, request, window)),
+          toList(query.queryHorizon(recurring, request, window)));
+    }
+  }
+
+  private static List<EpochRange> toList(Iterator<EpochRange> iterator) {
+    List<EpochRange> list = new ArrayList<>();
+    iterator.forEachRemaining(list::add);
+    return list;
+  }
+}
@@ -0,0 +1,219 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RoomIndexTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+  private static final int TIME_0500PM = TimeRange.getTimeInMinutes(17, 0);
+
+  private static final int DURATION_1_HOUR = 60;
+
+  // A small room that is busy until 10am, and a larger one that is always free.
+  private static final Room HUDDLE = new Room(
+      "Huddle", 4, Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1000AM, false)));
+  private static final Room BOARDROOM = new Room("Boardroom", 12, Collections.emptyList());
+
+  private FindMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new FindMeetingQuery();
+  }
+
+  @Test
+  public void smallestFreeRoomIsPicked() {
+    // A is only free from 9am to 11am. The huddle room is booked until 10am, so the boardroom is
+    // free soonest and keeps the slot for as long as it stays free.
+    List<Event> events = Arrays.asList(
+        new Event("Morning", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false), Arrays.asList(PERSON_A)),
+        new Event("Rest of day", TimeRange.fromStartEnd(TIME_1100AM, TimeRange.END_OF_DAY, true), Arrays.asList(PERSON_A)));
+    RoomIndex rooms = new RoomIndex(Arrays.asList(BOARDROOM, HUDDLE));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+
+    List<RoomSlot> actual = query.queryWithRoom(events, rooms, request);
+    List<RoomSlot> expected = Arrays.asList(
+        new RoomSlot(TimeRange.fromStartEnd(TIME_0900AM, TIME_1100AM, false), BOARDROOM));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void smallerRoomWinsWhenBothAreFree() {
+    List<Event> events = Arrays.asList(
+        new Event("Morning", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1000AM, false), Arrays.asList(PERSON_A)),
+        new Event("Rest of day", TimeRange.fromStartEnd(TIME_0500PM, TimeRange.END_OF_DAY, true), Arrays.asList(PERSON_A)));
+    RoomIndex rooms = new RoomIndex(Arrays.asList(BOARDROOM, HUDDLE));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+
+    List<RoomSlot> actual = query.queryWithRoom(events, rooms, request);
+    List<RoomSlot> expected = Arrays.asList(
+        new RoomSlot(TimeRange.fromStartEnd(TIME_1000AM, TIME_0500PM, false), HUDDLE));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void roomsThatAreTooSmallAreSkipped() {
+    RoomIndex rooms = new RoomIndex(Arrays.asList(HUDDLE, BOARDROOM));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.setMinCapacity(5);
+
+    List<RoomSlot> actual = query.queryWithRoom(Collections.emptyList(), rooms, request);
+
+    Assert.assertEquals(Arrays.asList(new RoomSlot(TimeRange.WHOLE_DAY, BOARDROOM)), actual);
+  }
+
+  @Test
+  public void noRoomIsBigEnough() {
+    RoomIndex rooms = new RoomIndex(Arrays.asList(HUDDLE, BOARDROOM));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.setMinCapacity(13);
+
+    Assert.assertEquals(Collections.emptyList(), query.queryWithRoom(Collections.emptyList(), rooms, request));
+  }
+
+  @Test
+  public void largerRoomFreeAMinuteSoonerWinsForNoDuration() {
+    // The huddle room is free from 10am and the boardroom from a minute earlier.
+    Room boardroom = new Room("Boardroom", 12,
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1000AM - 1, false)));
+    RoomIndex rooms = new RoomIndex(Arrays.asList(HUDDLE, boardroom));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 0);
+
+    List<RoomSlot> actual = query.queryWithRoom(Collections.emptyList(), rooms, request);
+    List<RoomSlot> expected = Arrays.asList(new RoomSlot(
+        TimeRange.fromStartEnd(TIME_1000AM - 1, TimeRange.END_OF_DAY, true), boardroom));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeesAreDroppedWhenNoRoomSuitsThem() {
+    // B is only free while the huddle room is booked, so A meets alone once the room is free.
+    List<Event> events = Arrays.asList(
+        new Event("Busy", TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true), Arrays.asList(PERSON_B)));
+    RoomIndex rooms = new RoomIndex(Arrays.asList(HUDDLE));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.addOptionalAttendee(PERSON_B);
+
+    List<RoomSlot> actual = query.queryWithRoom(events, rooms, request);
+    List<RoomSlot> expected = Arrays.asList(
+        new RoomSlot(TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true), HUDDLE));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void matchesCheckingEveryRoomAtEveryMinute() {
+    Random random = new Random(23);
+    for (int iteration = 0; iteration < 200; iteration++) {
+      List<Room> roomList = new ArrayList<>();
+      int roomCount = 1 + random.nextInt(iteration % 10 == 0 ? 300 : 8);
+      for (int i = 0; i < roomCount; i++) {
+        List<TimeRange> busyTimes = new ArrayList<>();
+        for (int j = random.nextInt(6); j > 0; j--) {
+          int start = random.nextInt(TimeRange.END_OF_DAY + 1);
+          busyTimes.add(TimeRange.fromStartEnd(start, start + random.nextInt(TimeRange.END_OF_DAY + 2 - start), false));
+        }
+        roomList.add(new Room("Room " + i, 2 * random.nextInt(6), busyTimes));
+      }
+
+      List<TimeRange> availableTimes = new ArrayList<>();
+      int position = random.nextInt(120);
+      while (position < TimeRange.END_OF_DAY) {
+        int end = Math.min(TimeRange.END_OF_DAY + 1, position + 1 + random.nextInt(400));
+        availableTimes.add(TimeRange.fromStartEnd(position, end, false));
+        position = end + random.nextInt(120);
+      }
+      long duration = 1 + random.nextInt(random.nextBoolean() ? 30 : 300);
+      int minCapacity = random.nextInt(11);
+
+      Assert.assertEquals(
+          findSlotsNaively(roomList, availableTimes, duration, minCapacity),
+          new RoomIndex(roomList).findSlots(availableTimes, duration, minCapacity));
+    }
+  }
+
+  /**
+   * Pick rooms the slow way, by checking every room for every free minute.
+   */
+  private static List<RoomSlot> findSlotsNaively(
+      List<Room> roomList, Collection<TimeRange> availableTimes, long duration, int minCapacity) {
+    List<Room> sorted = new ArrayList<>(roomList);
+    sorted.sort(Comparator.comparingInt(Room::getCapacity).thenComparing(Room::getName));
+
+    List<RoomSlot> slots = new ArrayList<>();
+    for (TimeRange availableTime : availableTimes) {
+      int position = availableTime.start();
+      while (position < availableTime.end()) {
+        Room bestRoom = null;
+        int bestStart = Integer.MAX_VALUE;
+        for (Room room : sorted) {
+          if (room.getCapacity() < minCapacity) {
+            continue;
+          }
+          for (int start = position; start + duration <= availableTime.end() && start < bestStart; start++) {
+            if (isFree(room, start, start + duration)) {
+              bestRoom = room;
+              bestStart = start;
+              break;
+            }
+          }
+        }
+        if (bestRoom == null) {
+          break;
+        }
+
+        int end = bestStart;
+        while (end < availableTime.end() && isFree(bestRoom, end, end + 1)) {
+          end++;
+        }
+        slots.add(new RoomSlot(TimeRange.fromStartEnd(bestStart, end, false), bestRoom));
+        position = end;
+      }
+    }
+    return slots;
+  }
+
+  private static boolean isFree(Room room, long start, long end) {
+    for (TimeRange busy : room.getBusyTimes()) {
+      if (busy.start() < end && start < busy.end()) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
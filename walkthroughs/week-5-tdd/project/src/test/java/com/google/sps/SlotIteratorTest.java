@@ -0,0 +1,122 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for the lazy {@code FindMeetingQuery.iterator} and {@code FindMeetingQuery.stream}. */
+@RunWith(JUnit4.class)
+public final class SlotIteratorTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  // A has a 30 minute meeting at the start of every hour from 8 to 12.
+  private static final Collection<Event> EVENTS = hourlyEvents(8, 12);
+
+  @Test
+  public void limitReturnsEarliestOptions() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    Collection<TimeRange> all = new FindMeetingQuery().query(EVENTS, request);
+    request.setLimit(3);
+
+    Collection<TimeRange> actual = new FindMeetingQuery().query(EVENTS, request);
+
+    Assert.assertEquals(new ArrayList<>(all).subList(0, 3), actual);
+    Assert.assertEquals(actual, new PackedIntervalQuery().query(EVENTS, request));
+    Assert.assertEquals(actual, new BitmapQuery().query(EVENTS, request));
+  }
+
+  @Test
+  public void streamStopsAtLimit() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.setLimit(2);
+
+    List<TimeRange> actual = new FindMeetingQuery()
+        .stream(new EventIndex(EVENTS), request).collect(Collectors.toList());
+    List<TimeRange> expected = Arrays.asList(TimeRange.fromStartEnd(0, 480, false),
+        TimeRange.fromStartEnd(510, 540, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void iteratorFallsBackToMandatoryAttendees() {
+    // B is busy all day, so only A's schedule matters.
+    List<Event> events = new ArrayList<>(EVENTS);
+    events.add(new Event("Busy", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_B)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    Iterator<TimeRange> actual = new FindMeetingQuery().iterator(new EventIndex(events), request);
+
+    Assert.assertTrue(actual.hasNext());
+    Assert.assertEquals(TimeRange.fromStartEnd(0, 480, false), actual.next());
+  }
+
+  @Test
+  public void limitStopsReadingBusyTimes() {
+    // A and B each have a meeting at the start of every hour, which gives 23 options, but only the
+    // times before the second option need to be read.
+    int[] reads = new int[1];
+    ScheduleSource schedules = attendee -> new AbstractList<TimeRange>() {
+      @Override
+      public TimeRange get(int index) {
+        reads[0]++;
+        return TimeRange.fromStartDuration(TimeRange.getTimeInMinutes(index + 1, 0), DURATION_30_MINUTES);
+      }
+
+      @Override
+      public int size() {
+        return 23;
+      }
+    };
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+    request.setLimit(2);
+
+    List<TimeRange> actual = new FindMeetingQuery().stream(schedules, request).collect(Collectors.toList());
+    List<TimeRange> expected = Arrays.asList(TimeRange.fromStartEnd(0, 60, false),
+        TimeRange.fromStartEnd(90, 120, false));
+
+    Assert.assertEquals(expected, actual);
+    Assert.assertTrue("read " + reads[0] + " busy times", reads[0] < 20);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeLimit() {
+    new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES).setLimit(-1);
+  }
+
+  private static Collection<Event> hourlyEvents(int firstHour, int lastHour) {
+    List<Event> events = new ArrayList<>();
+    for (int hour = firstHour; hour <= lastHour; hour++) {
+      events.add(new Event("Event " + hour,
+          TimeRange.fromStartDuration(TimeRange.getTimeInMinutes(hour, 0), DURATION_30_MINUTES),
+          Arrays.asList(PERSON_A)));
+    }
+    return events;
+  }
+}
@@ -0,0 +1,114 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@code FindMeetingQuery.query} with events read one at a time from an iterator. */
+@RunWith(JUnit4.class)
+public final class StreamingQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  @Test
+  public void manyEventsAreMergedAsTheyArrive() {
+    // Far more events than the working set starts with, so it is compacted many times.
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      int start = (i * 37) % 1000;
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, 1 + i % 5),
+          Arrays.asList(i % 3 == 0 ? PERSON_A : PERSON_B)));
+    }
+    events.add(new Event("Point", TimeRange.fromStartDuration(1200, 0), Arrays.asList(PERSON_A)));
+    events.add(new Event("Point", TimeRange.fromStartDuration(1200, 0), Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    request.addOptionalAttendee(PERSON_B);
+
+    Collection<TimeRange> expected = new FindMeetingQuery().query(events, request);
+    Collection<TimeRange> actual = new FindMeetingQuery().query(events.iterator(), request);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void streamIsReadLazily() {
+    // The events are made as the query reads them, so no collection of them is ever built.
+    Stream<Event> events = Stream.iterate(0, i -> i + 1)
+        .limit(5000)
+        .map(i -> new Event("Event " + i, TimeRange.fromStartDuration(i % 60, 1), Arrays.asList(PERSON_A)));
+
+    Collection<TimeRange> actual =
+        new FindMeetingQuery().query(events, new MeetingRequest(Arrays.asList(PERSON_A), 60));
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(60, TimeRange.END_OF_DAY, true)), new ArrayList<>(actual));
+  }
+
+  @Test
+  public void quorumOnlyKeepsRequiredAttendees() {
+    Iterator<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(0, 720, false), Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(600, 1440, false), Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_C))).iterator();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 60);
+    request.setQuorum(1);
+
+    Collection<TimeRange> actual = new FindMeetingQuery().query(events, request);
+
+    // Person C is busy all day but not required, so only the time when both are busy is left out.
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(0, 600, false), TimeRange.fromStartEnd(720, 1440, false)),
+        new ArrayList<>(actual));
+  }
+
+  @Test
+  public void eventsAreReadOnce() {
+    Iterator<Event> events = new Iterator<Event>() {
+      private boolean read;
+
+      @Override
+      public boolean hasNext() {
+        return !read;
+      }
+
+      @Override
+      public Event next() {
+        if (read) {
+          throw new NoSuchElementException();
+        }
+        read = true;
+        return new Event("Event", TimeRange.fromStartDuration(0, 60), Arrays.asList(PERSON_A));
+      }
+    };
+
+    Collection<TimeRange> actual =
+        new FindMeetingQuery().query(events, new MeetingRequest(Arrays.asList(PERSON_A), 30));
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(60, TimeRange.END_OF_DAY, true)), new ArrayList<>(actual));
+  }
+}
@@ -0,0 +1,163 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.QueryStats;
+import com.google.sps.Room;
+import com.google.sps.RoomSlot;
+import com.google.sps.TimeRange;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MeetingJsonCodecTest {
+  private static final MeetingJsonCodec CODEC = new MeetingJsonCodec();
+
+  private static final List<TimeRange> TIMES = Arrays.asList(
+      TimeRange.fromStartEnd(0, 480, false),
+      TimeRange.fromStartEnd(540, TimeRange.END_OF_DAY, true));
+
+  @Test
+  public void readsRequest() throws IOException {
+    MeetingRequest request = CODEC.readRequest(new StringReader(
+        "{\"attendees\":[\"Ava\",\"Liam\"],\"optional_attendees\":[\"Noah\"],"
+            + "\"duration\":30,\"quorum\":1,\"limit\":2,\"min_capacity\":6,\"unknown\":{\"a\":[1]}}"));
+
+    Assert.assertEquals(2, request.getAttendees().size());
+    Assert.assertTrue(request.getAttendees().containsAll(Arrays.asList("Ava", "Liam")));
+    Assert.assertEquals(Arrays.asList("Noah"), Arrays.asList(request.getOptionalAttendees().toArray()));
+    Assert.assertEquals(30, request.getDuration());
+    Assert.assertEquals(1, request.getQuorum());
+    Assert.assertEquals(2, request.getLimit());
+    Assert.assertEquals(6, request.getMinCapacity());
+  }
+
+  @Test
+  public void missingFieldsKeepTheirDefaults() throws IOException {
+    MeetingRequest request =
+        CODEC.readRequest(new StringReader("{\"duration\":60,\"optional_attendees\":null}"));
+
+    Assert.assertTrue(request.getAttendees().isEmpty());
+    Assert.assertTrue(request.getOptionalAttendees().isEmpty());
+    Assert.assertEquals(60, request.getDuration());
+    Assert.assertEquals(0, request.getQuorum());
+    Assert.assertEquals(0, request.getLimit());
+  }
+
+  @Test
+  public void readsRequestArray() throws IOException {
+    List<MeetingRequest> requests = CODEC.readRequests(
+        new StringReader("[{\"attendees\":[\"Ava\"],\"duration\":30},{\"duration\":60}]"));
+
+    Assert.assertEquals(2, requests.size());
+    Assert.assertEquals(30, requests.get(0).getDuration());
+    Assert.assertEquals(60, requests.get(1).getDuration());
+  }
+
+  @Test
+  public void negativeValuesAreInvalid() throws IOException {
+    for (String field : Arrays.asList("duration", "quorum", "limit", "min_capacity")) {
+      try {
+        CODEC.readRequest(new StringReader("{\"duration\":30,\"" + field + "\":-1}"));
+        Assert.fail("Expected a negative " + field + " to be rejected");
+      } catch (MeetingJsonCodec.InvalidRequestException e) {
+        Assert.assertTrue(e.getMessage(), e.getMessage().contains("cannot be negative"));
+      }
+    }
+  }
+
+  @Test(expected = MeetingJsonCodec.InvalidRequestException.class)
+  public void malformedJsonIsInvalid() throws IOException {
+    CODEC.readRequest(new StringReader("{\"duration\":\"thirty\"}"));
+  }
+
+  @Test(expected = MeetingJsonCodec.InvalidRequestException.class)
+  public void invalidRequestInArrayIsInvalid() throws IOException {
+    CODEC.readRequests(new StringReader("[{\"duration\":30},{\"limit\":-2}]"));
+  }
+
+  @Test
+  public void writesTimesLikeGson() throws IOException {
+    StringWriter out = new StringWriter();
+    CODEC.writeTimes(TIMES, out);
+
+    Assert.assertEquals(new Gson().toJson(TIMES), out.toString());
+  }
+
+  @Test
+  public void writesAnswersLikeGson() throws IOException {
+    List<Collection<TimeRange>> answers = Arrays.asList(TIMES, new ArrayList<>());
+    StringWriter out = new StringWriter();
+    CODEC.writeAnswers(answers, out);
+
+    Assert.assertEquals(new Gson().toJson(answers), out.toString());
+  }
+
+  @Test
+  public void writesRoomSlotsAsTimesWithTheirRoom() throws IOException {
+    Room room = new Room("Board Room", 16, new ArrayList<>());
+    StringWriter out = new StringWriter();
+    CODEC.writeRoomSlots(Arrays.asList(new RoomSlot(TimeRange.fromStartDuration(540, 30), room)), out);
+
+    Assert.assertEquals(
+        "[{\"start\":540,\"duration\":30,\"room\":\"Board Room\",\"capacity\":16}]",
+        out.toString());
+  }
+
+  @Test
+  public void writesEventsWithAttendeeNames() throws IOException {
+    Event event = new Event("Standup", TimeRange.fromStartDuration(540, 15), Arrays.asList("Ava"));
+    StringWriter out = new StringWriter();
+    CODEC.writeEvents(Arrays.asList(event), out);
+
+    Assert.assertEquals(
+        "[{\"title\":\"Standup\",\"when\":{\"start\":540,\"duration\":15},\"attendees\":[\"Ava\"]}]",
+        out.toString());
+  }
+
+  @Test
+  public void writesStatsWithNonEmptyBuckets() throws IOException {
+    QueryStats stats = new QueryStats(1);
+    QueryStats.Sample sample = stats.startSample();
+    sample.count(QueryStats.Counter.SLOTS_PRODUCED, 3);
+    sample.end();
+    StringWriter out = new StringWriter();
+
+    CODEC.writeStats(stats, out);
+
+    JsonObject json = new Gson().fromJson(out.toString(), JsonObject.class);
+    Assert.assertEquals(1, json.get("sampleRate").getAsInt());
+    Assert.assertEquals(3, json.getAsJsonObject("counters").get("slotsProduced").getAsLong());
+    JsonObject phases = json.getAsJsonObject("phases");
+    Assert.assertEquals(1, phases.getAsJsonObject("total").get("count").getAsLong());
+    Assert.assertEquals(1, phases.getAsJsonObject("total").getAsJsonArray("buckets").size());
+    Assert.assertEquals(0, phases.getAsJsonObject("findEventTimes").getAsJsonArray("buckets").size());
+  }
+}